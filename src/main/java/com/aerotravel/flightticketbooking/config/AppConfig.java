@@ -16,6 +16,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
 
 import java.util.List;
 import java.util.concurrent.Executor;
@@ -26,7 +27,7 @@ import java.util.stream.Collectors;
 public class AppConfig {
 
     @Bean
-    public Executor taskExecutor() {
+    public ThreadPoolTaskExecutor fileUploadExecutor() {
         val executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(10);
         executor.setMaxPoolSize(10);
@@ -36,6 +37,14 @@ public class AppConfig {
         return executor;
     }
 
+    /**
+     * Runs the @Async methods with the security context of their caller, so that they act for the same user.
+     */
+    @Bean
+    public Executor taskExecutor(ThreadPoolTaskExecutor fileUploadExecutor) {
+        return new DelegatingSecurityContextAsyncTaskExecutor(fileUploadExecutor);
+    }
+
     @Bean
     public ObjectMapper provideObjectMapper(){
         ObjectMapper mapper = new ObjectMapper();
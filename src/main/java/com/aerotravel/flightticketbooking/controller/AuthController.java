@@ -180,7 +180,8 @@ public class AuthController {
     public Map<String, Object> fixUserRoles() {
         try {
             // Manual trigger to fix user roles without restarting
-            User currentUser = userService.getCurrentUser();
+            // Loaded afresh rather than the cached current user, as it is modified below.
+            User currentUser = userService.getUserByUsername(userService.getCurrentUsername());
 
             // Get all roles
             var allRoles = roleRepository.findAll();
@@ -1,10 +1,12 @@
 package com.aerotravel.flightticketbooking.controller;
 
+import com.aerotravel.flightticketbooking.exception.EntityNotFoundException;
 import com.aerotravel.flightticketbooking.model.Airport;
 import com.aerotravel.flightticketbooking.model.Flight;
 import com.aerotravel.flightticketbooking.model.Passenger;
 import com.aerotravel.flightticketbooking.services.AircraftService;
 import com.aerotravel.flightticketbooking.services.AirportService;
+import com.aerotravel.flightticketbooking.services.BookingService;
 import com.aerotravel.flightticketbooking.services.FlightService;
 import com.aerotravel.flightticketbooking.services.PassengerService;
 import lombok.extern.slf4j.Slf4j;
@@ -57,6 +59,8 @@ public class FlightsGuiController {
     FlightService flightService;
     @Autowired
     PassengerService passengerService;
+    @Autowired
+    BookingService bookingService;
 
     @GetMapping("/flight/new")
     @PreAuthorize("hasRole('ADMIN')")
@@ -232,11 +236,15 @@ public class FlightsGuiController {
                              BindingResult bindingResult,
                              @RequestParam("flightId") long flightId, Model model) {
         log.info("About to book a ticket for flight {}", flightId);
-        Flight flight = flightService.getById(flightId);
-        Passenger passenger1 = passenger;
-        passenger1.setFlight(flight);
-        passengerService.save(passenger1);
-        model.addAttribute("passenger", passenger1);
+        var result = bookingService.bookFlight(flightId, passenger);
+        if (result.isWaitlisted()) {
+            var waitlisted = result.waitlistEntry().toPassenger();
+            waitlisted.setFlight(result.waitlistEntry().getFlight());
+            model.addAttribute("passenger", waitlisted);
+            model.addAttribute("waitlistPosition", result.position());
+        } else {
+            model.addAttribute("passenger", result.passenger());
+        }
         return "confirmationPage";
     }
 
@@ -247,38 +255,34 @@ public class FlightsGuiController {
     }
 
     @PostMapping("/flight/book/verify")
-    public String showVerifyBookingPageResult(@RequestParam("flightId") long flightId,
-                                              @RequestParam("passengerId") long passengerId,
+    public String showVerifyBookingPageResult(@RequestParam(value = "bookingReference", required = false) String bookingReference,
+                                              @RequestParam(value = "flightId", required = false) Long flightId,
+                                              @RequestParam(value = "passengerId", required = false) Long passengerId,
                                               Model model) {
-        log.info("About to verify booking for flight={} and passenger={}", flightId, passengerId);
-        var flightOptional = flightService.getOptionallyById(flightId);
-        if (flightOptional.isPresent()) {
-            var flight = flightOptional.get();
-            model.addAttribute(ATTR_FLIGHT, flight);
-            var passengers = flight.getPassengers();
-            Passenger passenger = null;
-            for (Passenger p : passengers) {
-                if (p.getPassengerId() == passengerId) {
-                    passenger = passengerService.getById(passengerId);
-                    model.addAttribute("passenger", passenger);
-                }
-            }
-            if (passenger == null) {
-                log.info("No passengers were found for flight={} with Id={}", flightId, passengerId);
-                model.addAttribute(ATTR_NOT_FOUND, "Passenger " + passengerId + " was Not Found");
+        log.info("About to verify booking {} for flight={} and passenger={}", bookingReference, flightId, passengerId);
+        try {
+            Passenger passenger;
+            if (null != bookingReference && !bookingReference.isBlank()) {
+                passenger = bookingService.getBooking(bookingReference);
+            } else if (null != flightId && null != passengerId) {
+                passenger = bookingService.getBooking(flightId, passengerId);
+            } else {
+                model.addAttribute(ATTR_NOT_FOUND, "Either the booking reference or both ids are required");
+                return "verifyBooking";
             }
-        } else {
-            log.info("No bookings were found for flight={} with Id={}", flightId, passengerId);
-            model.addAttribute(ATTR_NOT_FOUND, "Flight " + flightId + " was Not Found");
+            model.addAttribute(ATTR_FLIGHT, passenger.getFlight());
+            model.addAttribute("passenger", passenger);
+        } catch (EntityNotFoundException e) {
+            log.info("No bookings were found: {}", e.getMessage());
+            model.addAttribute(ATTR_NOT_FOUND, e.getMessage());
         }
         return "verifyBooking";
-
     }
 
     @PostMapping("/flight/book/cancel")
     public String cancelTicket(@RequestParam("passengerId") long passengerId, Model model) {
         log.info("About to cancel a booking for passenger {}", passengerId);
-        passengerService.deleteById(passengerId);
+        bookingService.cancelBooking(passengerId);
         model.addAttribute(ATTR_FLIGHTS, flightService.getAllPaged(0));
         model.addAttribute(ATTR_CURRENT_PAGE, 0);
         return ATTR_FLIGHTS;
@@ -214,7 +214,7 @@ public class MainController {
     @PostMapping(value = "/aircrafts/upload")
     public String importAircrafts(Model model, @RequestParam(value = "file", required = false) MultipartFile data) throws IOException {
         log.info("About to import aircraft data from CSV file");
-        val response = aircraftRestController.handleImportViaFile(data);
+        val response = aircraftRestController.handleImportViaFile(data, null);
 
         if (null != response && response.hasBody()) {
             model.addAttribute("messages", requireNonNull(response.getBody()).entrySet());
@@ -2,9 +2,13 @@ package com.aerotravel.flightticketbooking.controller.api;
 
 import com.aerotravel.flightticketbooking.dto.auth.AuthenticationRequest;
 import com.aerotravel.flightticketbooking.dto.auth.AuthenticationResponse;
+import com.aerotravel.flightticketbooking.dto.auth.LogoutRequest;
 import com.aerotravel.flightticketbooking.model.User;
 import com.aerotravel.flightticketbooking.security.JwtTokenUtil;
+import com.aerotravel.flightticketbooking.security.TokenDenylist;
+import com.aerotravel.flightticketbooking.security.VerifiedToken;
 import com.aerotravel.flightticketbooking.services.UserService;
+import io.jsonwebtoken.JwtException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -23,9 +27,9 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -38,9 +42,9 @@ import java.util.stream.Collectors;
 public class JwtAuthController {
 
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
     private final UserService userService;
     private final JwtTokenUtil jwtTokenUtil;
+    private final TokenDenylist tokenDenylist;
 
     @Operation(summary = "Authenticate user and get JWT tokens", 
                description = "Login with username/password to receive Bearer tokens for API access")
@@ -65,8 +69,8 @@ public class JwtAuthController {
                         .body(Map.of("error", "User not found", "status", 401));
             }
 
-            String accessToken = jwtTokenUtil.generateToken(userDetails);
-            String refreshToken = jwtTokenUtil.generateRefreshToken(userDetails);
+            String accessToken = jwtTokenUtil.generateToken(user);
+            String refreshToken = jwtTokenUtil.generateRefreshToken(user);
 
             AuthenticationResponse.UserInfo userInfo = AuthenticationResponse.UserInfo.builder()
                     .username(user.getUsername())
@@ -118,13 +122,16 @@ public class JwtAuthController {
 
         try {
             String refreshToken = authHeader.substring(7);
-            String username = jwtTokenUtil.extractUsername(refreshToken);
+            var verified = jwtTokenUtil.verify(refreshToken);
+            String username = verified.subject();
             
             if (username != null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                User user = userService.getUserByUsername(username);
                 
-                if (jwtTokenUtil.isTokenValid(refreshToken, userDetails)) {
-                    String newAccessToken = jwtTokenUtil.generateToken(userDetails);
+                // The token version is not checked: a refresh is how a client gets a token for its switched role.
+                if (user != null && isActive(user) && !verified.isExpired(Instant.now())
+                        && !tokenDenylist.isRevoked(verified.tokenId())) {
+                    String newAccessToken = jwtTokenUtil.generateToken(user);
                     
                     Map<String, Object> response = new HashMap<>();
                     response.put("accessToken", newAccessToken);
@@ -145,6 +152,11 @@ public class JwtAuthController {
         }
     }
 
+    private static boolean isActive(User user) {
+        return Boolean.TRUE.equals(user.getEnabled()) && Boolean.TRUE.equals(user.getAccountNonLocked())
+                && Boolean.TRUE.equals(user.getAccountNonExpired());
+    }
+
     @Operation(summary = "Get current user info", 
                description = "Get current authenticated user information")
     @SecurityRequirement(name = "bearerAuth")
@@ -189,12 +201,31 @@ public class JwtAuthController {
     }
 
     @Operation(summary = "Logout", 
-               description = "Invalidate current session (for session-based auth)")
+               description = "Revoke the bearer token, and the refresh token when given, until they expire")
     @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Logged out successfully"),
+        @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
-        // Note: JWT tokens are stateless and cannot be invalidated server-side
-        // In a production environment, you might want to implement a token blacklist
+    public ResponseEntity<?> logout(HttpServletRequest request, @RequestBody(required = false) LogoutRequest logoutRequest) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            revoke(authHeader.substring(7));
+        }
+        if (logoutRequest != null && logoutRequest.getRefreshToken() != null) {
+            revoke(logoutRequest.getRefreshToken());
+        }
         return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
     }
+
+    private void revoke(String token) {
+        try {
+            VerifiedToken verified = jwtTokenUtil.verify(token);
+            tokenDenylist.revoke(verified.tokenId(), verified.expiresAt());
+        } catch (JwtException | IllegalArgumentException e) {
+            // An invalid or expired token is of no use already.
+            log.debug("Token not revoked: {}", e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.aerotravel.flightticketbooking.dto.auth;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Logout request")
+public class LogoutRequest {
+
+    @Schema(description = "Refresh token to revoke along with the access token")
+    private String refreshToken;
+}
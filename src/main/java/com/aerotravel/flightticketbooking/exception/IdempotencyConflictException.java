@@ -0,0 +1,8 @@
+package com.aerotravel.flightticketbooking.exception;
+
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
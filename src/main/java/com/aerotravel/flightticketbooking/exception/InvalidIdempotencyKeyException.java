@@ -0,0 +1,8 @@
+package com.aerotravel.flightticketbooking.exception;
+
+public class InvalidIdempotencyKeyException extends IllegalArgumentException {
+
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -18,6 +18,7 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Entity
+@Table(indexes = @Index(name = "idx_aircraft_owner_model", columnList = "user_id, model"))
 @Data
 @Builder
 @AllArgsConstructor
@@ -32,6 +33,7 @@ public class Aircraft implements Comparable<Aircraft>{
     @Size(max = 300)
     private String manufacturer;
     @Size(max = 300)
+    @Column(name = "model")
     private String model;
     @Max(value = 1000, message = "* Number of seats cannot be too big.")
     @Min(value = 1, message = "* Number of seats cannot be too small.")
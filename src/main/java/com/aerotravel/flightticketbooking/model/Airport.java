@@ -15,6 +15,10 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_airport_owner_name", columnList = "user_id, airport_name"),
+        @Index(name = "idx_airport_owner_city", columnList = "user_id, city"),
+        @Index(name = "idx_airport_owner_country", columnList = "user_id, country")})
 @Data
 @Builder
 @AllArgsConstructor
@@ -33,6 +37,7 @@ public class Airport implements Comparable<Airport>{
     @Column(unique = true)
     private String airportCode;
     @Size(max = 300)
+    @Column(name = "airport_name")
     private String airportName;
     @Size(max = 300)
     private String city;
@@ -2,6 +2,7 @@ package com.aerotravel.flightticketbooking.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import lombok.AllArgsConstructor;
@@ -18,6 +19,11 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_flight_owner_route_date",
+                columnList = "user_id, departure_airport_airport_id, destination_airport_airport_id, departure_date"),
+        @Index(name = "idx_flight_owner_number", columnList = "user_id, flight_number"),
+        @Index(name = "idx_flight_owner_departure_date", columnList = "user_id, departure_date")})
 @Data
 @Builder(toBuilder = true)
 @AllArgsConstructor
@@ -42,15 +48,19 @@ public class Flight implements Comparable<Flight>{
     private long flightId;
     @Size(max = 30, message = "Not longer than 30 characters please!")
     @NotBlank
+    @Column(name = "flight_number")
     private String flightNumber;
     @ManyToOne
+    @JoinColumn(name = "departure_airport_airport_id")
     @JsonBackReference("airport-flights")
     private Airport departureAirport;
     @ManyToOne
+    @JoinColumn(name = "destination_airport_airport_id")
     @JsonBackReference
     private Airport destinationAirport;
     @DateTimeFormat(pattern = "yyyy-MM-dd")
     @FutureOrPresent
+    @Column(name = "departure_date")
     private LocalDate departureDate;
     @DateTimeFormat(pattern = "yyyy-MM-dd")
     @FutureOrPresent
@@ -63,6 +73,16 @@ public class Flight implements Comparable<Flight>{
     private String status;
     @PositiveOrZero(message = "Shall be positive!")
     private double flightCharge;
+    // Maintained by the bookings with conditional updates only, null until counted.
+    @Column(name = "seats_remaining", insertable = false, updatable = false)
+    @JsonIgnore
+    private Integer seatsRemaining;
+
+    // Maintained along with the waitlist entries by conditional updates only.
+    @Column(name = "waitlist_count", insertable = false, updatable = false,
+            columnDefinition = "int not null default 0")
+    @JsonIgnore
+    private int waitlistCount;
 
     public Flight(String flightNumber, Airport departureAirport, Airport destinationAirport,
                   double flightCharge, LocalDate departureDate, LocalDate arrivalDate) {
@@ -0,0 +1,54 @@
+package com.aerotravel.flightticketbooking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * An event written in the same transaction as the change it is about, to be dispatched after the commit.
+ * Pending and claimed events are due once their next attempt time has come; for a claimed one it is the lease end.
+ */
+@Entity
+@Table(name = "outbox_event",
+        indexes = @Index(name = "idx_outbox_event_status_next_attempt", columnList = "status, next_attempt_at"))
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+
+    public static final String BOOKING_CONFIRMED = "BOOKING_CONFIRMED";
+    public static final String BOOKING_CANCELLED = "BOOKING_CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long eventId;
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+    @Column(name = "aggregate_id", nullable = false)
+    private long aggregateId;
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+    @Column(name = "dispatched_at")
+    private Instant dispatchedAt;
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public enum Status {
+        PENDING, CLAIMED, DISPATCHED, FAILED
+    }
+}
@@ -14,6 +14,11 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity
+@Table(indexes = @Index(name = "idx_passenger_owner_last_name", columnList = "user_id, last_name"),
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_passenger_flight_seat", columnNames = {"flight_flight_id", "seat_number"}),
+                @UniqueConstraint(name = "uk_passenger_flight_passport", columnNames = {"flight_flight_id", "passport_number"}),
+                @UniqueConstraint(name = "uk_passenger_booking_reference", columnNames = "booking_reference")})
 @Data
 @Builder
 @AllArgsConstructor
@@ -30,12 +35,14 @@ public class Passenger {
     private String firstName;
     @NotBlank
     @Size(max = 300)
+    @Column(name = "last_name")
     private String lastName;
     @NotBlank
     @Size(max = 30)
     private String phoneNumber;
     @NotBlank
     @Size(max = 30)
+    @Column(name = "passport_number")
     private String passportNumber;
     @Email
     @Size(max = 300)
@@ -43,7 +50,15 @@ public class Passenger {
     @Size(max = 300)
     private String address;
 
+    @Column(name = "seat_number")
+    private Integer seatNumber;
+
+    // Generated once the passenger is saved, kept across updates.
+    @Column(name = "booking_reference", length = 6)
+    private String bookingReference;
+
     @ManyToOne
+    @JoinColumn(name = "flight_flight_id")
     @JsonBackReference("flight-passengers")
     private Flight flight;
 
@@ -70,6 +85,8 @@ public class Passenger {
                 ", passportNumber='" + passportNumber + '\'' +
                 ", email='" + email + '\'' +
                 ", address='" + address + '\'' +
+                ", seatNumber=" + seatNumber +
+                ", bookingReference='" + bookingReference + '\'' +
                 ", flight=" + (null == flight ? null : flight.getFlightNumber()) +
                 '}';
     }
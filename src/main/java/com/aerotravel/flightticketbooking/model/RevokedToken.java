@@ -0,0 +1,31 @@
+package com.aerotravel.flightticketbooking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A revoked JWT by its id (jti), kept until the token would have expired anyway.
+ */
+@Entity
+@Table(name = "revoked_token",
+        indexes = {@Index(name = "idx_revoked_token_revoked_at", columnList = "revoked_at"),
+                @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at")})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @Column(name = "token_id", length = 64)
+    private String tokenId;
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
@@ -78,6 +78,11 @@ public class User {
     @Builder.Default
     private String currentRole = "ROLE_AGENT";
 
+    // Carried by the issued tokens; bumping it revokes them.
+    @Column(name = "token_version", nullable = false, columnDefinition = "int not null default 0")
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
     @Override
     public String toString() {
         return "User{" +
@@ -0,0 +1,66 @@
+package com.aerotravel.flightticketbooking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A passenger waiting for a seat on a full flight. Entries are served first come, first served, by their id.
+ */
+@Entity
+@Table(name = "waitlist_entry",
+        indexes = @Index(name = "idx_waitlist_entry_flight_entry", columnList = "flight_flight_id, waitlist_entry_id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_waitlist_entry_flight_passport",
+                columnNames = {"flight_flight_id", "passport_number"}))
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "waitlist_entry_id")
+    private long waitlistEntryId;
+    private String firstName;
+    private String lastName;
+    private String phoneNumber;
+    @Column(name = "passport_number")
+    private String passportNumber;
+    private String email;
+    private String address;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @ManyToOne
+    @JoinColumn(name = "flight_flight_id", nullable = false)
+    @ToString.Exclude
+    private Flight flight;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id")
+    @ToString.Exclude
+    private User owner;
+
+    public static WaitlistEntry of(Passenger passenger, Flight flight) {
+        return WaitlistEntry.builder()
+                .firstName(passenger.getFirstName())
+                .lastName(passenger.getLastName())
+                .phoneNumber(passenger.getPhoneNumber())
+                .passportNumber(passenger.getPassportNumber())
+                .email(passenger.getEmail())
+                .address(passenger.getAddress())
+                .createdAt(Instant.now())
+                .flight(flight)
+                .owner(flight.getOwner())
+                .build();
+    }
+
+    public Passenger toPassenger() {
+        return new Passenger(firstName, lastName, phoneNumber, passportNumber, email, address);
+    }
+}
@@ -38,6 +38,17 @@ public class AircraftDto implements IdedEntity {
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private List<Long> flightIds = new ArrayList<>();
 
+    /**
+     * Used by the lean JPQL projections. Flight ids are filled in separately.
+     */
+    public AircraftDto(long aircraftId, String manufacturer, String model, Integer numberOfSeats) {
+        this.aircraftId = aircraftId;
+        this.manufacturer = manufacturer;
+        this.model = model;
+        this.numberOfSeats = numberOfSeats;
+        this.flightIds = new ArrayList<>();
+    }
+
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     @Override
     public long getId() {
@@ -0,0 +1,18 @@
+package com.aerotravel.flightticketbooking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AirportSuggestionDto {
+    private long airportId;
+    private String airportCode;
+    private String airportName;
+    private String city;
+    private String country;
+}
@@ -0,0 +1,21 @@
+package com.aerotravel.flightticketbooking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One day of a lowest-fare calendar. No cheapest charge when there are no flights that day.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FareCalendarDayDto {
+    private LocalDate departureDate;
+    private Double cheapestFlightCharge;
+    private long flightCount;
+}
@@ -13,7 +13,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class FlightDto implements IdedEntity {
@@ -47,6 +47,30 @@ public class FlightDto implements IdedEntity {
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     @Builder.Default
     private List<Long> passengerIds = new ArrayList<>();
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int waitlistCount;
+
+    /**
+     * Used by the lean JPQL projections. Passenger ids are filled in separately.
+     */
+    public FlightDto(long flightId, String flightNumber, String departureAirportCode, String destinationAirportCode,
+                     LocalDate departureDate, LocalDate arrivalDate, String departureTime, String arrivalTime,
+                     String gate, String status, double flightCharge, Long aircraftId, int waitlistCount) {
+        this.flightId = flightId;
+        this.flightNumber = flightNumber;
+        this.departureAirportCode = departureAirportCode;
+        this.destinationAirportCode = destinationAirportCode;
+        this.departureDate = departureDate;
+        this.arrivalDate = arrivalDate;
+        this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+        this.gate = gate;
+        this.status = status;
+        this.flightCharge = flightCharge;
+        this.aircraftId = null == aircraftId ? 0L : aircraftId;
+        this.passengerIds = new ArrayList<>();
+        this.waitlistCount = waitlistCount;
+    }
 
     @Override
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
@@ -0,0 +1,24 @@
+package com.aerotravel.flightticketbooking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A way to get from one airport to another, possibly with connections.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItineraryDto {
+    @Builder.Default
+    private List<ItineraryLegDto> legs = new ArrayList<>();
+    private int connections;
+    private long durationMinutes;
+    private double totalCharge;
+}
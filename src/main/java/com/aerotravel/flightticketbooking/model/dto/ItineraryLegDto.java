@@ -0,0 +1,24 @@
+package com.aerotravel.flightticketbooking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItineraryLegDto {
+    private long flightId;
+    private String flightNumber;
+    private String departureAirportCode;
+    private String destinationAirportCode;
+    private LocalDate departureDate;
+    private String departureTime;
+    private LocalDate arrivalDate;
+    private String arrivalTime;
+    private double flightCharge;
+}
@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
@@ -35,6 +36,11 @@ public class PassengerDto implements IdedEntity {
     @Size(max = 300)
     private String address;
     private long flightId;
+    // Picked automatically when not requested.
+    @Min(1)
+    private Integer seatNumber;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String bookingReference;
 
     @Override
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
@@ -0,0 +1,22 @@
+package com.aerotravel.flightticketbooking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A seat kept for a booking until it is confirmed or expires. No seat number when the flight has no seat map.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeatHoldDto {
+    private String holdId;
+    private long flightId;
+    private Integer seatNumber;
+    private Instant expiresAt;
+}
@@ -0,0 +1,23 @@
+package com.aerotravel.flightticketbooking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Seats of a flight, numbered from 1 to the aircraft capacity.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeatMapDto {
+    private long flightId;
+    private String flightNumber;
+    private int capacity;
+    private int available;
+    private List<Integer> takenSeats;
+}
@@ -0,0 +1,22 @@
+package com.aerotravel.flightticketbooking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A booking put on the waitlist of a full flight. It is booked automatically once a seat is cancelled.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WaitlistEntryDto {
+    private long waitlistEntryId;
+    private long flightId;
+    private int position;
+    private String firstName;
+    private String lastName;
+    private String passportNumber;
+}
@@ -0,0 +1,7 @@
+package com.aerotravel.flightticketbooking.model.projection;
+
+/**
+ * A flight id along with the id of the aircraft flying it.
+ */
+public record AircraftFlightRef(long aircraftId, long flightId) {
+}
@@ -0,0 +1,7 @@
+package com.aerotravel.flightticketbooking.model.projection;
+
+/**
+ * The airport columns needed for code resolution and suggestions.
+ */
+public record AirportSummary(long airportId, String airportCode, String airportName, String city, String country) {
+}
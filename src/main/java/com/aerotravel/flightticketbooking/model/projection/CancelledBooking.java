@@ -0,0 +1,8 @@
+package com.aerotravel.flightticketbooking.model.projection;
+
+/**
+ * What is left to tell about a booking deleted in bulk; the flight is {@code null} when none was booked.
+ */
+public record CancelledBooking(Long flightId, String flightNumber, long passengerId, String passportNumber,
+                               Integer seatNumber) {
+}
@@ -0,0 +1,9 @@
+package com.aerotravel.flightticketbooking.model.projection;
+
+import java.time.LocalDate;
+
+/**
+ * The lowest fare and the number of flights on a route for one departure date.
+ */
+public record FareCalendarEntry(LocalDate departureDate, Double cheapestFlightCharge, Long flightCount) {
+}
@@ -0,0 +1,19 @@
+package com.aerotravel.flightticketbooking.model.projection;
+
+import java.time.LocalDate;
+
+/**
+ * A lean view of a flight as a leg of an itinerary.
+ */
+public record FlightLeg(long flightId,
+                        String flightNumber,
+                        Long departureAirportId,
+                        String departureAirportCode,
+                        Long destinationAirportId,
+                        String destinationAirportCode,
+                        LocalDate departureDate,
+                        String departureTime,
+                        LocalDate arrivalDate,
+                        String arrivalTime,
+                        double flightCharge) {
+}
@@ -0,0 +1,7 @@
+package com.aerotravel.flightticketbooking.model.projection;
+
+/**
+ * A passenger id along with the id of the flight booked.
+ */
+public record FlightPassengerRef(long flightId, long passengerId) {
+}
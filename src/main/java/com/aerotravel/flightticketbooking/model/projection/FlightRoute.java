@@ -0,0 +1,9 @@
+package com.aerotravel.flightticketbooking.model.projection;
+
+import java.time.LocalDate;
+
+/**
+ * A lean view of a flight: just enough to place it on a route.
+ */
+public record FlightRoute(long flightId, Long departureAirportId, Long destinationAirportId, LocalDate departureDate) {
+}
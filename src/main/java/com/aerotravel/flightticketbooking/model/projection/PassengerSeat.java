@@ -0,0 +1,7 @@
+package com.aerotravel.flightticketbooking.model.projection;
+
+/**
+ * Where a passenger sits; the flight and seat are {@code null} when not booked.
+ */
+public record PassengerSeat(Long flightId, Integer seatNumber, String bookingReference) {
+}
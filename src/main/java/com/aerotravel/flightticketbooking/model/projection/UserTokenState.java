@@ -0,0 +1,12 @@
+package com.aerotravel.flightticketbooking.model.projection;
+
+/**
+ * What decides whether the tokens issued to a user are still honoured.
+ */
+public record UserTokenState(Integer tokenVersion, Boolean enabled, Boolean accountNonLocked, Boolean accountNonExpired) {
+
+    public boolean isActive() {
+        return Boolean.TRUE.equals(enabled) && Boolean.TRUE.equals(accountNonLocked)
+                && Boolean.TRUE.equals(accountNonExpired);
+    }
+}
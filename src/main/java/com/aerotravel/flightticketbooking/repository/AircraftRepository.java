@@ -2,15 +2,19 @@ package com.aerotravel.flightticketbooking.repository;
 
 import com.aerotravel.flightticketbooking.model.Aircraft;
 import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.model.dto.AircraftDto;
+import com.aerotravel.flightticketbooking.model.projection.AircraftFlightRef;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface AircraftRepository extends JpaRepository<Aircraft, Long> {
+public interface AircraftRepository extends OwnedEntityRepository<Aircraft> {
     List<Aircraft> findByModel(String model);
     List<Aircraft> findByManufacturer(String manufacturer);
 
@@ -19,4 +23,18 @@ public interface AircraftRepository extends JpaRepository<Aircraft, Long> {
     Page<Aircraft> findAllByOwner(User owner, Pageable pageable);
     List<Aircraft> findByOwnerAndModel(User owner, String model);
     List<Aircraft> findByOwnerAndManufacturer(User owner, String manufacturer);
+
+    @Query("select a.numberOfSeats from Aircraft a where a.aircraftId = :aircraftId")
+    Integer findNumberOfSeatsById(@Param("aircraftId") long aircraftId);
+
+    // Lean projections
+    @Query("select new com.aerotravel.flightticketbooking.model.dto.AircraftDto(" +
+            "a.aircraftId, a.manufacturer, a.model, a.numberOfSeats) " +
+            "from Aircraft a where a.owner.id = :ownerId and a.aircraftId > :afterId order by a.aircraftId")
+    List<AircraftDto> findDtosByOwnerIdAfter(@Param("ownerId") Long ownerId, @Param("afterId") long afterId,
+                                             Pageable pageable);
+
+    @Query("select new com.aerotravel.flightticketbooking.model.projection.AircraftFlightRef(f.aircraft.aircraftId, f.flightId) " +
+            "from Flight f where f.aircraft.aircraftId in :aircraftIds")
+    List<AircraftFlightRef> findFlightRefsByAircraftIds(@Param("aircraftIds") Collection<Long> aircraftIds);
 }
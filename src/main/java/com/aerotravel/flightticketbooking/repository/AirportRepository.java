@@ -2,19 +2,28 @@ package com.aerotravel.flightticketbooking.repository;
 
 import com.aerotravel.flightticketbooking.model.Airport;
 import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.model.projection.AirportSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AirportRepository extends JpaRepository<Airport, Long> {
+public interface AirportRepository extends OwnedEntityRepository<Airport> {
     Optional<Airport> findByAirportCode(String airportCode);
 
     List<Airport> findAllByOwner(User owner);
     Page<Airport> findAllByOwner(User owner, Pageable pageable);
     Optional<Airport> findByOwnerAndAirportCode(User owner, String airportCode);
+    boolean existsByAirportIdAndAirportCode(Long airportId, String airportCode);
+
+    // Lean projections
+    @Query("select new com.aerotravel.flightticketbooking.model.projection.AirportSummary(" +
+            "a.airportId, a.airportCode, a.airportName, a.city, a.country) " +
+            "from Airport a where a.owner.username = :username")
+    List<AirportSummary> findSummariesByOwnerUsername(@Param("username") String username);
 }
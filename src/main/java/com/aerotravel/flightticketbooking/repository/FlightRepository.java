@@ -3,14 +3,26 @@ package com.aerotravel.flightticketbooking.repository;
 import com.aerotravel.flightticketbooking.model.Airport;
 import com.aerotravel.flightticketbooking.model.Flight;
 import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.model.dto.FlightDto;
+import com.aerotravel.flightticketbooking.model.projection.FareCalendarEntry;
+import com.aerotravel.flightticketbooking.model.projection.FlightLeg;
+import com.aerotravel.flightticketbooking.model.projection.FlightRoute;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
-public interface FlightRepository extends JpaRepository<Flight, Long> {
+public interface FlightRepository extends OwnedEntityRepository<Flight> {
+    String FLIGHT_DTO_PROJECTION = "select new com.aerotravel.flightticketbooking.model.dto.FlightDto(" +
+            "f.flightId, f.flightNumber, dep.airportCode, dest.airportCode, f.departureDate, f.arrivalDate, " +
+            "f.departureTime, f.arrivalTime, f.gate, f.status, f.flightCharge, f.aircraft.aircraftId, f.waitlistCount) " +
+            "from Flight f left join f.departureAirport dep left join f.destinationAirport dest ";
+
     List<Flight> findAllByDepartureAirportEqualsAndDestinationAirportEqualsAndDepartureDateEquals(Airport depAirport, Airport destAirport, LocalDate depDate);
     List<Flight> findAllByDepartureAirportEqualsAndDestinationAirportEquals(Airport depAirport, Airport destAirport);
 
@@ -22,4 +34,152 @@ public interface FlightRepository extends JpaRepository<Flight, Long> {
     List<Flight> findAllByOwnerAndDepartureAirportEqualsAndDestinationAirportEqualsAndDepartureDateEquals(User owner, Airport depAirport, Airport destAirport, LocalDate depDate);
     List<Flight> findAllByOwnerAndDepartureAirportEqualsAndDestinationAirportEquals(User owner, Airport depAirport, Airport destAirport);
     List<Flight> findByOwnerAndFlightNumber(User owner, String flightNumber);
+
+    // Seat inventory
+    @Modifying
+    @Query(value = "update flight f set f.seats_remaining = " +
+            "(select a.number_of_seats from aircraft a where a.aircraft_id = f.aircraft_aircraft_id) - " +
+            "(select count(*) from passenger p where p.flight_flight_id = f.flight_id) - :held " +
+            "where f.flight_id = :flightId and f.seats_remaining is null",
+            nativeQuery = true)
+    int initSeatsRemaining(@Param("flightId") long flightId, @Param("held") int held);
+
+    @Modifying
+    @Query("update Flight f set f.seatsRemaining = f.seatsRemaining - :seats " +
+            "where f.flightId = :flightId and f.seatsRemaining >= :seats")
+    int reserveSeats(@Param("flightId") long flightId, @Param("seats") int seats);
+
+    @Modifying
+    @Query("update Flight f set f.seatsRemaining = f.seatsRemaining + :seats " +
+            "where f.flightId = :flightId and f.seatsRemaining is not null")
+    int releaseSeats(@Param("flightId") long flightId, @Param("seats") int seats);
+
+    @Modifying
+    @Query("update Flight f set f.seatsRemaining = null where f.flightId = :flightId")
+    int resetSeatsRemaining(@Param("flightId") long flightId);
+
+    @Modifying
+    @Query("update Flight f set f.seatsRemaining = null where f.aircraft.aircraftId = :aircraftId")
+    int resetSeatsRemainingByAircraftId(@Param("aircraftId") long aircraftId);
+
+    @Modifying
+    @Query("update Flight f set f.seatsRemaining = f.seatsRemaining + :delta " +
+            "where f.flightId = :flightId and f.seatsRemaining is not null")
+    int adjustSeatsRemaining(@Param("flightId") long flightId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("update Flight f set f.seatsRemaining = f.seatsRemaining + :delta " +
+            "where f.aircraft.aircraftId = :aircraftId and f.seatsRemaining is not null")
+    int adjustSeatsRemainingByAircraftId(@Param("aircraftId") long aircraftId, @Param("delta") int delta);
+
+    @Query("select f.flightId from Flight f where f.aircraft.aircraftId = :aircraftId")
+    List<Long> findIdsByAircraftId(@Param("aircraftId") long aircraftId);
+
+    // Null when the flight has no aircraft or the aircraft no number of seats.
+    @Query("select a.numberOfSeats from Flight f join f.aircraft a where f.flightId = :flightId")
+    Integer findCapacityById(@Param("flightId") long flightId);
+
+    @Modifying
+    @Query("update Flight f set f.seatsRemaining = null where f.seatsRemaining is not null")
+    int resetAllSeatsRemaining();
+
+    // Locks the flight row, so that the seats remaining stay as read until the transaction ends.
+    @Query(value = "select f.seats_remaining from flight f where f.flight_id = :flightId for update", nativeQuery = true)
+    Integer findSeatsRemainingForUpdate(@Param("flightId") long flightId);
+
+    @Modifying
+    @Query("update Flight f set f.waitlistCount = f.waitlistCount + 1 where f.flightId = :flightId")
+    int incrementWaitlistCount(@Param("flightId") long flightId);
+
+    @Modifying
+    @Query("update Flight f set f.waitlistCount = f.waitlistCount - 1 where f.flightId = :flightId and f.waitlistCount > 0")
+    int decrementWaitlistCount(@Param("flightId") long flightId);
+
+    @Query("select f.waitlistCount from Flight f where f.flightId = :flightId")
+    int findWaitlistCount(@Param("flightId") long flightId);
+
+    @Modifying
+    @Query("update Flight f set f.waitlistCount = 0 where f.flightId in :flightIds")
+    int resetWaitlistCounts(@Param("flightIds") Collection<Long> flightIds);
+
+    // Bulk deletes lock the owned flight rows first. Every booking updates its flight row, so none slips in meanwhile.
+    @Query(value = "select f.flight_id from flight f where f.flight_id in :flightIds and f.user_id = :ownerId for update",
+            nativeQuery = true)
+    List<Long> lockOwnedFlights(@Param("flightIds") Collection<Long> flightIds, @Param("ownerId") long ownerId);
+
+    @Query(value = "select f.flight_id from flight f where f.flight_id in (select p.flight_flight_id from passenger p " +
+            "where p.passenger_id in :passengerIds and p.user_id = :ownerId) for update",
+            nativeQuery = true)
+    List<Long> lockFlightsOfBookings(@Param("passengerIds") Collection<Long> passengerIds, @Param("ownerId") long ownerId);
+
+    @Query(value = "select f.flight_id from flight f where f.aircraft_aircraft_id = :aircraftId and f.user_id = :ownerId for update",
+            nativeQuery = true)
+    List<Long> lockOwnedFlightsByAircraftId(@Param("aircraftId") long aircraftId, @Param("ownerId") long ownerId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Flight f where f.flightId in :flightIds and f.owner.id = :ownerId")
+    int deleteAllOwnedByIds(@Param("flightIds") Collection<Long> flightIds, @Param("ownerId") long ownerId);
+
+    // Lean projections
+    @Query(FLIGHT_DTO_PROJECTION +
+            "where f.owner.id = :ownerId " +
+            "and f.departureAirport.airportId = :depAirportId and f.destinationAirport.airportId = :destAirportId " +
+            "and f.departureDate = :depDate")
+    List<FlightDto> findDtosByOwnerIdAndRouteAndDepartureDate(@Param("ownerId") Long ownerId,
+                                                              @Param("depAirportId") long depAirportId,
+                                                              @Param("destAirportId") long destAirportId,
+                                                              @Param("depDate") LocalDate depDate);
+
+    @Query(FLIGHT_DTO_PROJECTION +
+            "where f.owner.id = :ownerId " +
+            "and f.departureAirport.airportId = :depAirportId and f.destinationAirport.airportId = :destAirportId")
+    List<FlightDto> findDtosByOwnerIdAndRoute(@Param("ownerId") Long ownerId,
+                                              @Param("depAirportId") long depAirportId,
+                                              @Param("destAirportId") long destAirportId);
+
+    @Query(FLIGHT_DTO_PROJECTION +
+            "where f.owner.id = :ownerId and f.departureDate = :depDate " +
+            "and f.departureAirport.airportId in (select depArea.airportId from Airport depArea " +
+            "   where depArea.owner.id = :ownerId and (depArea.city = :depArea or depArea.country = :depArea)) " +
+            "and f.destinationAirport.airportId in (select destArea.airportId from Airport destArea " +
+            "   where destArea.owner.id = :ownerId and (destArea.city = :destArea or destArea.country = :destArea))")
+    List<FlightDto> findDtosByOwnerIdAndAreasAndDepartureDate(@Param("ownerId") Long ownerId,
+                                                              @Param("depArea") String depArea,
+                                                              @Param("destArea") String destArea,
+                                                              @Param("depDate") LocalDate depDate);
+
+    // Keyset chunks by id: each is a separate query, so no cursor stays open while a chunk is worked on.
+    @Query(FLIGHT_DTO_PROJECTION + "where f.owner.id = :ownerId and f.flightId > :afterId order by f.flightId")
+    List<FlightDto> findDtosByOwnerIdAfter(@Param("ownerId") Long ownerId, @Param("afterId") long afterId,
+                                           Pageable pageable);
+
+    @Query(FLIGHT_DTO_PROJECTION + "where f.owner.id = :ownerId and f.flightNumber = :flightNumber")
+    List<FlightDto> findDtosByOwnerIdAndFlightNumber(@Param("ownerId") Long ownerId,
+                                                     @Param("flightNumber") String flightNumber);
+
+    @Query("select new com.aerotravel.flightticketbooking.model.projection.FlightRoute(" +
+            "f.flightId, f.departureAirport.airportId, f.destinationAirport.airportId, f.departureDate) " +
+            "from Flight f where f.owner.id = :ownerId")
+    List<FlightRoute> findRoutesByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("select new com.aerotravel.flightticketbooking.model.projection.FlightLeg(" +
+            "f.flightId, f.flightNumber, dep.airportId, dep.airportCode, dest.airportId, dest.airportCode, " +
+            "f.departureDate, f.departureTime, f.arrivalDate, f.arrivalTime, f.flightCharge) " +
+            "from Flight f join f.departureAirport dep join f.destinationAirport dest " +
+            "where f.owner.id = :ownerId and f.departureDate between :fromDate and :toDate")
+    List<FlightLeg> findLegsByOwnerIdAndDepartureDateBetween(@Param("ownerId") Long ownerId,
+                                                             @Param("fromDate") LocalDate fromDate,
+                                                             @Param("toDate") LocalDate toDate);
+
+    @Query("select new com.aerotravel.flightticketbooking.model.projection.FareCalendarEntry(" +
+            "f.departureDate, min(f.flightCharge), count(f)) " +
+            "from Flight f where f.owner.id = :ownerId " +
+            "and f.departureAirport.airportId = :depAirportId and f.destinationAirport.airportId = :destAirportId " +
+            "and f.departureDate between :fromDate and :toDate " +
+            "group by f.departureDate")
+    List<FareCalendarEntry> findFareCalendar(@Param("ownerId") Long ownerId,
+                                             @Param("depAirportId") long depAirportId,
+                                             @Param("destAirportId") long destAirportId,
+                                             @Param("fromDate") LocalDate fromDate,
+                                             @Param("toDate") LocalDate toDate);
 }
@@ -0,0 +1,43 @@
+package com.aerotravel.flightticketbooking.repository;
+
+import com.aerotravel.flightticketbooking.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Skips the rows locked by another dispatcher instead of waiting for them.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.status in :statuses and e.nextAttemptAt <= :now order by e.eventId")
+    List<OutboxEvent> findDueForUpdate(@Param("statuses") Collection<OutboxEvent.Status> statuses,
+                                       @Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = :status, e.dispatchedAt = :now, e.lastError = null " +
+            "where e.eventId in :eventIds")
+    int markDispatched(@Param("eventIds") Collection<Long> eventIds,
+                       @Param("status") OutboxEvent.Status status, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = :status, e.nextAttemptAt = :nextAttemptAt where e.eventId in :eventIds")
+    int postpone(@Param("eventIds") Collection<Long> eventIds,
+                 @Param("status") OutboxEvent.Status status, @Param("nextAttemptAt") Instant nextAttemptAt);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = :status and e.dispatchedAt < :before")
+    int deleteDispatchedBefore(@Param("status") OutboxEvent.Status status, @Param("before") Instant before);
+}
@@ -0,0 +1,29 @@
+package com.aerotravel.flightticketbooking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lookups of the entities owned by a user, with the owner in the where clause,
+ * so they go through the user_id foreign key index and never load another user's rows.
+ */
+@NoRepositoryBean
+public interface OwnedEntityRepository<E> extends JpaRepository<E, Long> {
+
+    @Query("select e from #{#entityName} e where id(e) = :id and e.owner.id = :ownerId")
+    Optional<E> findByIdAndOwnerId(@Param("id") long id, @Param("ownerId") long ownerId);
+
+    @Query("select e from #{#entityName} e where id(e) in :ids and e.owner.id = :ownerId")
+    List<E> findAllByIdInAndOwnerId(@Param("ids") Collection<Long> ids, @Param("ownerId") long ownerId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from #{#entityName} e where id(e) = :id and e.owner.id = :ownerId")
+    int deleteByIdAndOwnerId(@Param("id") long id, @Param("ownerId") long ownerId);
+}
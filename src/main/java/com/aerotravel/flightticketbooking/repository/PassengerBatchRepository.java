@@ -0,0 +1,46 @@
+package com.aerotravel.flightticketbooking.repository;
+
+import com.aerotravel.flightticketbooking.model.Passenger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.Collection;
+
+/**
+ * Plain JDBC batch inserts of passengers. Hibernate cannot batch them, as their ids are generated by identity columns.
+ */
+@Repository
+public class PassengerBatchRepository {
+
+    private static final int BATCH_SIZE = 50;
+    private static final String INSERT_PASSENGER = "insert into passenger " +
+            "(first_name, last_name, phone_number, passport_number, email, address, seat_number, booking_reference, " +
+            "flight_flight_id, user_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public PassengerBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the passengers along with their flight and owner. The generated ids are not read back.
+     */
+    public void insertAll(Collection<Passenger> passengers) {
+        jdbcTemplate.batchUpdate(INSERT_PASSENGER, passengers, BATCH_SIZE, (ps, passenger) -> {
+            ps.setString(1, passenger.getFirstName());
+            ps.setString(2, passenger.getLastName());
+            ps.setString(3, passenger.getPhoneNumber());
+            ps.setString(4, passenger.getPassportNumber());
+            ps.setString(5, passenger.getEmail());
+            ps.setString(6, passenger.getAddress());
+            ps.setObject(7, passenger.getSeatNumber(), Types.INTEGER);
+            ps.setString(8, passenger.getBookingReference());
+            ps.setLong(9, passenger.getFlight().getFlightId());
+            ps.setLong(10, passenger.getOwner().getId());
+        });
+    }
+}
@@ -2,15 +2,22 @@ package com.aerotravel.flightticketbooking.repository;
 
 import com.aerotravel.flightticketbooking.model.Passenger;
 import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.model.projection.CancelledBooking;
+import com.aerotravel.flightticketbooking.model.projection.FlightPassengerRef;
+import com.aerotravel.flightticketbooking.model.projection.PassengerSeat;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface PassengerRepository extends JpaRepository<Passenger, Long> {
+public interface PassengerRepository extends OwnedEntityRepository<Passenger> {
 
     List<Passenger> findAllByPassportNumber(String number);
 
@@ -18,4 +25,70 @@ public interface PassengerRepository extends JpaRepository<Passenger, Long> {
     List<Passenger> findAllByOwner(User owner);
     Page<Passenger> findAllByOwner(User owner, Pageable pageable);
     List<Passenger> findAllByOwnerAndPassportNumber(User owner, String number);
+
+    // Lean projections
+    @Query("select new com.aerotravel.flightticketbooking.model.projection.FlightPassengerRef(p.flight.flightId, p.passengerId) " +
+            "from Passenger p where p.flight.flightId in :flightIds")
+    List<FlightPassengerRef> findPassengerRefsByFlightIds(@Param("flightIds") Collection<Long> flightIds);
+
+    @Query("select new com.aerotravel.flightticketbooking.model.projection.PassengerSeat(f.flightId, p.seatNumber, p.bookingReference) " +
+            "from Passenger p left join p.flight f where p.passengerId = :passengerId")
+    Optional<PassengerSeat> findSeatByPassengerId(@Param("passengerId") long passengerId);
+
+    @Query("select count(p) > 0 from Passenger p " +
+            "where p.flight.flightId = :flightId and p.passportNumber = :passportNumber")
+    boolean existsOnFlightByPassportNumber(@Param("flightId") long flightId,
+                                           @Param("passportNumber") String passportNumber);
+
+    @Query("select p.passportNumber from Passenger p " +
+            "where p.flight.flightId = :flightId and p.passportNumber in :passportNumbers")
+    List<String> findPassportNumbersOnFlight(@Param("flightId") long flightId,
+                                             @Param("passportNumbers") Collection<String> passportNumbers);
+
+    @Query("select p from Passenger p where p.flight.flightId = :flightId and p.passportNumber in :passportNumbers")
+    List<Passenger> findAllOnFlightByPassportNumbers(@Param("flightId") long flightId,
+                                                     @Param("passportNumbers") Collection<String> passportNumbers);
+
+    // Bookings along with their flight, resolved by a single indexed query.
+    @Query("select p from Passenger p join fetch p.flight f left join fetch f.departureAirport " +
+            "left join fetch f.destinationAirport left join fetch f.aircraft " +
+            "where p.bookingReference = :bookingReference and p.owner.id = :ownerId")
+    Optional<Passenger> findBookingByReference(@Param("bookingReference") String bookingReference,
+                                               @Param("ownerId") long ownerId);
+
+    @Query("select p from Passenger p join fetch p.flight f left join fetch f.departureAirport " +
+            "left join fetch f.destinationAirport left join fetch f.aircraft " +
+            "where p.passengerId = :passengerId and f.flightId = :flightId and p.owner.id = :ownerId")
+    Optional<Passenger> findBookingOnFlight(@Param("flightId") long flightId, @Param("passengerId") long passengerId,
+                                            @Param("ownerId") long ownerId);
+
+    boolean existsByBookingReference(String bookingReference);
+
+    @Query("select p.bookingReference from Passenger p where p.bookingReference in :bookingReferences")
+    List<String> findBookingReferencesIn(@Param("bookingReferences") Collection<String> bookingReferences);
+
+    @Query("select p.seatNumber from Passenger p where p.flight.flightId = :flightId and p.seatNumber is not null")
+    List<Integer> findSeatNumbersByFlightId(@Param("flightId") long flightId);
+
+    // Bulk cancellations, the ownership is checked by the statements themselves
+    @Query("select new com.aerotravel.flightticketbooking.model.projection.CancelledBooking(" +
+            "f.flightId, f.flightNumber, p.passengerId, p.passportNumber, p.seatNumber) " +
+            "from Passenger p join p.flight f where f.flightId in :flightIds and f.owner.id = :ownerId")
+    List<CancelledBooking> findBookingsOnFlights(@Param("flightIds") Collection<Long> flightIds,
+                                                 @Param("ownerId") long ownerId);
+
+    @Query("select new com.aerotravel.flightticketbooking.model.projection.CancelledBooking(" +
+            "f.flightId, f.flightNumber, p.passengerId, p.passportNumber, p.seatNumber) " +
+            "from Passenger p left join p.flight f where p.passengerId in :passengerIds and p.owner.id = :ownerId")
+    List<CancelledBooking> findBookingsByIds(@Param("passengerIds") Collection<Long> passengerIds,
+                                             @Param("ownerId") long ownerId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Passenger p where p.flight.flightId in " +
+            "(select f.flightId from Flight f where f.flightId in :flightIds and f.owner.id = :ownerId)")
+    int deleteAllOnFlights(@Param("flightIds") Collection<Long> flightIds, @Param("ownerId") long ownerId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Passenger p where p.passengerId in :passengerIds and p.owner.id = :ownerId")
+    int deleteAllByIds(@Param("passengerIds") Collection<Long> passengerIds, @Param("ownerId") long ownerId);
 }
@@ -2,7 +2,10 @@ package com.aerotravel.flightticketbooking.repository;
 
 
 import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.model.projection.UserTokenState;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,4 +17,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
 
+    @Query("select new com.aerotravel.flightticketbooking.model.projection.UserTokenState(" +
+            "u.tokenVersion, u.enabled, u.accountNonLocked, u.accountNonExpired) from User u where u.id = :userId")
+    Optional<UserTokenState> findTokenStateById(@Param("userId") long userId);
+
 }
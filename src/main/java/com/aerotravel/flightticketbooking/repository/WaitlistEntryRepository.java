@@ -0,0 +1,30 @@
+package com.aerotravel.flightticketbooking.repository;
+
+import com.aerotravel.flightticketbooking.model.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    Optional<WaitlistEntry> findFirstByFlightFlightIdOrderByWaitlistEntryIdAsc(long flightId);
+
+    boolean existsByFlightFlightIdAndPassportNumber(long flightId, String passportNumber);
+
+    @Query("select w.passportNumber from WaitlistEntry w " +
+            "where w.flight.flightId = :flightId and w.passportNumber in :passportNumbers")
+    List<String> findPassportNumbersOnFlight(@Param("flightId") long flightId,
+                                             @Param("passportNumbers") Collection<String> passportNumbers);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from WaitlistEntry w where w.flight.flightId in " +
+            "(select f.flightId from Flight f where f.flightId in :flightIds and f.owner.id = :ownerId)")
+    int deleteAllOnFlights(@Param("flightIds") Collection<Long> flightIds, @Param("ownerId") long ownerId);
+}
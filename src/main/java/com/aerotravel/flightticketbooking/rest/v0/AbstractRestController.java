@@ -1,8 +1,10 @@
 package com.aerotravel.flightticketbooking.rest.v0;
 
 import com.aerotravel.flightticketbooking.model.dto.ApiResponse;
+import com.aerotravel.flightticketbooking.model.dto.CursorPage;
 import com.aerotravel.flightticketbooking.model.dto.IdedEntity;
 import com.aerotravel.flightticketbooking.services.EntityService;
+import com.aerotravel.flightticketbooking.services.cache.IdempotencyStore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -18,23 +20,38 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.aerotravel.flightticketbooking.services.cache.IdempotencyStore.IDEMPOTENCY_KEY_HEADER;
 import static jakarta.servlet.http.HttpServletResponse.SC_OK;
 
 @Slf4j
 @Validated
 public abstract class AbstractRestController<E, D extends IdedEntity> {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     @Autowired
     protected ModelMapper modelMapper;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private IdempotencyStore idempotencyStore;
 
     protected abstract EntityService<E> getService();
 
@@ -55,6 +72,35 @@ public abstract class AbstractRestController<E, D extends IdedEntity> {
                 .collect(Collectors.toList()));
     }
 
+    @GetMapping(path = "/stream", produces = APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Get all entities available as newline delimited JSON.",
+            description = "Same as the plain GET, but every entity is written out as soon as it is read, " +
+                    "so the response size does not matter.")
+    public void streamAll(HttpServletResponse response) throws IOException {
+        log.info("Streaming all records.");
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        var out = response.getOutputStream();
+        forEachDto(dto -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(dto));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    /**
+     * Goes through the DTOs of all entities for streaming. Converting an entity may initialize its lazy collections,
+     * a query each, so controllers whose DTOs list collection ids override it with a lean projection.
+     */
+    protected void forEachDto(Consumer<D> consumer) {
+        getService().forEach(entity -> consumer.accept(convertToDto(entity)));
+    }
+
     @GetMapping("/page/{number}")
     @Operation(summary = "Get entities available on the page.")
     public ResponseEntity<Iterable<D>> findAllPaged(@PathVariable int number) {
@@ -72,6 +118,17 @@ public abstract class AbstractRestController<E, D extends IdedEntity> {
         return getService().getPaged(pageable).map(this::convertToDto);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Get entities page by page using continuation cursors.",
+            description = "Omit the cursor for the first page, then pass the nextCursor of the previous page. " +
+                    "There are no more pages when nextCursor is missing. Unlike page numbers, " +
+                    "deep pages are as fast as the first one.")
+    public CursorPage<D> findByCursor(@RequestParam(value = "cursor", required = false) String cursor,
+                                      @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) int size) {
+        log.info("Getting {} records after cursor {}.", size, cursor);
+        return getService().getCursorPage(cursor, size).map(this::convertToDto);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get an entity by its id.")
     public ResponseEntity<D> findById(@PathVariable Long id) {
@@ -83,12 +140,34 @@ public abstract class AbstractRestController<E, D extends IdedEntity> {
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(summary = "Attempt to create an entity by using its DTO.")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<D> create(@Valid @RequestBody D entityDto) {
+    public ResponseEntity<D> create(@Valid @RequestBody D entityDto,
+                                    @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("Attempting to create a {} record. {}", getEntityClass().getSimpleName(), entityDto);
+        return idempotent("create", idempotencyKey, entityDto, () -> doCreate(entityDto));
+    }
+
+    protected ResponseEntity<D> doCreate(D entityDto) {
         return new ResponseEntity<>(convertToDto(getService()
                 .save(convertToEntity(entityDto))), HttpStatus.CREATED);
     }
 
+    /**
+     * Runs the operation once per idempotency key of the current user; a retry gets the first response again.
+     * Without a user the keys of all the clients would share one scope, so the operation just runs.
+     *
+     * @param fingerprint identifies the request, a retry shall have an equal one.
+     */
+    protected <T> T idempotent(String operation, String idempotencyKey, Object fingerprint, Supplier<T> action) {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (null == authentication || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            log.warn("No user to scope the idempotency key of {} by, running it as is.", operation);
+            return action.get();
+        }
+        return idempotencyStore.execute(authentication.getName(), getEntityClass().getSimpleName() + "." + operation,
+                idempotencyKey, fingerprint, action);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Attempt to update an entity by using its DTO.")
     @PreAuthorize("hasRole('ADMIN')")
@@ -101,7 +180,7 @@ public abstract class AbstractRestController<E, D extends IdedEntity> {
         // Check whether it exists at all.
         getService().getById(id);
 
-        return create(entityDto);
+        return doCreate(entityDto);
     }
 
     @PatchMapping(path = "/{id}", consumes = "application/json-patch+json")
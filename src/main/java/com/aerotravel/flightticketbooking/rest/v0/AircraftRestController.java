@@ -22,6 +22,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -32,13 +33,19 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import static com.aerotravel.flightticketbooking.services.cache.IdempotencyStore.IDEMPOTENCY_KEY_HEADER;
 import static org.apache.commons.collections.IteratorUtils.toList;
 
 @RestController
@@ -66,6 +73,11 @@ public class AircraftRestController extends AbstractRestController<Aircraft, Air
         return Aircraft.class;
     }
 
+    @Override
+    protected void forEachDto(Consumer<AircraftDto> consumer) {
+        aircraftService.forEachCurrentUserAircraftDto(consumer);
+    }
+
     @Override
     protected AircraftDto convertToDto(Aircraft entity) {
         return modelMapper.map(entity, AircraftDto.class);
@@ -105,6 +117,15 @@ public class AircraftRestController extends AbstractRestController<Aircraft, Air
                 .collect(Collectors.toList());
     }
 
+    @DeleteMapping("/{aircraftId}/flights")
+    @Operation(summary = "Attempt to delete all current user's flights of the aircraft, along with their bookings.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> deleteFlights(@PathVariable("aircraftId") long aircraftId) {
+        log.info("Deleting current user's flights of the aircraft {}.", aircraftId);
+        int deleted = flightService.deleteAllByAircraftId(aircraftId);
+        return ResponseEntity.ok("Deleted " + deleted + " flights of the aircraft " + aircraftId);
+    }
+
     @Operation(summary = "Attempt to import aircraft data from CSV file.",
             description =
                     "</br>CSV file content sample:</br>" +
@@ -115,13 +136,18 @@ public class AircraftRestController extends AbstractRestController<Aircraft, Air
                             "</br> </pre>")
     @PostMapping(value = "/import", consumes = "multipart/form-data")
     public ResponseEntity<Map<String, String>> handleImportViaFile(
-            @RequestPart("file") MultipartFile file) throws IOException {
+            @RequestPart("file") MultipartFile file,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws IOException {
+        val records = null == file ? null : parseRecords(file);
+        return idempotent("import", idempotencyKey, fingerprintOf(file), () -> importRecords(file, records));
+    }
+
+    private ResponseEntity<Map<String, String>> importRecords(MultipartFile file, List<AircraftDto> records) {
         var map = new LinkedHashMap<String, String>();
 
         if (null != file) {
             log.info("About to import some data from '{}'", file.getOriginalFilename());
             putFileInfo(file, map);
-            val records = parseRecords(file);
             val savedEntities = aircraftService.saveAll(records.stream()
                             .map(this::convertToEntity).collect(Collectors.toList()));
             savedEntities.forEach(e -> map.put(String.valueOf(e.getAircraftId()), e.getModel()));
@@ -146,7 +172,8 @@ public class AircraftRestController extends AbstractRestController<Aircraft, Air
     @PostMapping(value = "/import/async", consumes = "multipart/form-data")
     @Async
     public CompletableFuture<ResponseEntity<String>> handleImportViaFileAsync(
-            @RequestPart("file") MultipartFile file) throws IOException, InterruptedException {
+            @RequestPart("file") MultipartFile file,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws IOException, InterruptedException {
         // Handle empty file error
         if (null == file || file.isEmpty()) {
             return CompletableFuture
@@ -157,15 +184,30 @@ public class AircraftRestController extends AbstractRestController<Aircraft, Air
             log.info("About to start Aircraft data import from '{}'", file.getOriginalFilename());
             val records = parseRecords(file);
 
-            for (AircraftDto dto : records) {
-                val saved = aircraftService.saveAsync(convertToEntity(dto));
-                if (null != saved) {
-                    log.info("Saved {}", saved.getAircraftId());
+            return CompletableFuture.completedFuture(idempotent("importAsync", idempotencyKey, fingerprintOf(file), () -> {
+                try {
+                    for (AircraftDto dto : records) {
+                        val saved = aircraftService.saveAsync(convertToEntity(dto));
+                        if (null != saved) {
+                            log.info("Saved {}", saved.getAircraftId());
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Aircraft data import was interrupted.", e);
                 }
-            }
+                return ResponseEntity.ok("File upload started. Keep calm and wait for delivery.");
+            }));
+        }
+    }
 
-            return CompletableFuture.completedFuture(
-                    ResponseEntity.ok("File upload started. Keep calm and wait for delivery."));
+    private static Object fingerprintOf(MultipartFile file) throws IOException {
+        if (null == file) return null;
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(file.getBytes());
+            return Arrays.asList(file.getOriginalFilename(), HexFormat.of().formatHex(digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 
@@ -2,14 +2,24 @@ package com.aerotravel.flightticketbooking.rest.v0;
 
 import com.aerotravel.flightticketbooking.model.Airport;
 import com.aerotravel.flightticketbooking.model.dto.AirportDto;
+import com.aerotravel.flightticketbooking.model.dto.AirportSuggestionDto;
 import com.aerotravel.flightticketbooking.services.AirportService;
 import com.aerotravel.flightticketbooking.services.EntityService;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v0/airports")
 @Tag(name = "Airport", description = "Airport resource, CRUD operations")
@@ -33,6 +43,15 @@ public class AirportRestController extends AbstractRestController<Airport, Airpo
         return Airport.class;
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest airports by the beginning of their code, name or city.",
+            description = "Exact code matches come first, then code, name, city and other word prefixes.")
+    public ResponseEntity<List<AirportSuggestionDto>> suggest(
+            @RequestParam("q") @Size(min = 1, max = 100) String query,
+            @RequestParam(value = "limit", defaultValue = "10") @Min(1) @Max(50) int limit) {
+        return ResponseEntity.ok(airportService.suggestCurrentUserAirports(query, limit));
+    }
+
     protected AirportDto convertToDto(Airport airport) {
         return modelMapper.map(airport, AirportDto.class);
     }
@@ -1,17 +1,20 @@
 package com.aerotravel.flightticketbooking.rest.v0;
 
-import com.aerotravel.flightticketbooking.exception.EntityNotFoundException;
 import com.aerotravel.flightticketbooking.model.Flight;
 import com.aerotravel.flightticketbooking.model.Passenger;
+import com.aerotravel.flightticketbooking.model.dto.FareCalendarDayDto;
 import com.aerotravel.flightticketbooking.model.dto.FlightDto;
+import com.aerotravel.flightticketbooking.model.dto.ItineraryDto;
 import com.aerotravel.flightticketbooking.model.dto.PassengerDto;
+import com.aerotravel.flightticketbooking.model.dto.SeatHoldDto;
+import com.aerotravel.flightticketbooking.model.dto.SeatMapDto;
+import com.aerotravel.flightticketbooking.model.dto.WaitlistEntryDto;
 import com.aerotravel.flightticketbooking.services.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,13 +22,24 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import static com.aerotravel.flightticketbooking.services.cache.IdempotencyStore.IDEMPOTENCY_KEY_HEADER;
+
 @RestController
 @RequestMapping("/api/v0/flights")
 @Tag(name = "Flight", description = "Flight resource. Flight booking is possible as well!")
@@ -38,13 +52,16 @@ public class FlightRestController extends AbstractRestController<Flight, FlightD
     private final AirportService airportService;
     private final AircraftService aircraftService;
     private final PassengerService passengerService;
+    private final BookingService bookingService;
 
     @Autowired
-    public FlightRestController(FlightService flightService, AirportService airportService, AircraftService aircraftService, PassengerService passengerService) {
+    public FlightRestController(FlightService flightService, AirportService airportService, AircraftService aircraftService,
+                                PassengerService passengerService, BookingService bookingService) {
         this.flightService = flightService;
         this.airportService = airportService;
         this.aircraftService = aircraftService;
         this.passengerService = passengerService;
+        this.bookingService = bookingService;
     }
 
     @Override
@@ -57,6 +74,11 @@ public class FlightRestController extends AbstractRestController<Flight, FlightD
         return Flight.class;
     }
 
+    @Override
+    protected void forEachDto(Consumer<FlightDto> consumer) {
+        flightService.forEachCurrentUserFlightDto(consumer);
+    }
+
     @Override
     protected FlightDto convertToDto(Flight entity) {
         return modelMapper.map(entity, FlightDto.class);
@@ -108,9 +130,14 @@ public class FlightRestController extends AbstractRestController<Flight, FlightD
                                 "aircraftId": 1
                         }</br></pre>"""
     )
-    public ResponseEntity<FlightDto> create(@Valid @RequestBody FlightDto entityDto) {
+    public ResponseEntity<FlightDto> create(@Valid @RequestBody FlightDto entityDto,
+                                            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("Attempting to create a Flight record. {}", entityDto);
+        return idempotent("create", idempotencyKey, entityDto, () -> doCreate(entityDto));
+    }
 
+    @Override
+    protected ResponseEntity<FlightDto> doCreate(FlightDto entityDto) {
         doBasicValidation(entityDto);
 
         val headers = buildHeaders(entityDto);
@@ -155,10 +182,7 @@ public class FlightRestController extends AbstractRestController<Flight, FlightD
     @Operation(summary = "Attempt to get current user's flights by flight number.")
     public ResponseEntity<List<FlightDto>> findByFlightNumber(@PathVariable String flightNumber) {
         log.info("Searching for current user's flights by number={}", flightNumber);
-        return ResponseEntity.ok(flightService.getCurrentUserFlightsByFlightNumber(flightNumber)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList()));
+        return ResponseEntity.ok(flightService.getCurrentUserFlightDtosByFlightNumber(flightNumber));
     }
 
     @GetMapping(value = "/search",
@@ -175,18 +199,66 @@ public class FlightRestController extends AbstractRestController<Flight, FlightD
         if (null != departureDate && departureDate.length() > 9) {
             var deptDate = LocalDate.parse(departureDate, DATE_TIME_FORMATTER);
 
-            return ResponseEntity.ok(flightService.getCurrentUserFlightsByAirportAndDepartureTime(depAirport, destAirport, deptDate)
-                    .stream()
-                    .map(this::convertToDto)
-                    .collect(Collectors.toList()));
+            return ResponseEntity.ok(flightService.getCurrentUserFlightDtosByAirportAndDepartureTime(depAirport, destAirport, deptDate));
         } else {
-            return ResponseEntity.ok(flightService.getCurrentUserFlightsByAirports(depAirport, destAirport)
-                    .stream()
-                    .map(this::convertToDto)
-                    .collect(Collectors.toList()));
+            return ResponseEntity.ok(flightService.getCurrentUserFlightDtosByAirports(depAirport, destAirport));
         }
     }
 
+    @GetMapping(value = "/search/area",
+            params = {"departureArea", "destinationArea", "departureDate"})
+    @Operation(summary = "Search for flights between any airports of the departure/destination cities or countries on the departure date(yyyy-MM-dd).",
+            description = "An area matches the airports whose city or country equals it, e.g. 'London' or 'Spain'.")
+    public ResponseEntity<List<FlightDto>> findByAreasAndDepartureTime(
+            @RequestParam("departureArea") @NotBlank String departureArea,
+            @RequestParam("destinationArea") @NotBlank String destinationArea,
+            @RequestParam("departureDate") String departureDate) {
+        log.info("Searching for current user's flights from area {} to area {} on {}.", departureArea, destinationArea, departureDate);
+        var deptDate = LocalDate.parse(departureDate, DATE_TIME_FORMATTER);
+
+        return ResponseEntity.ok(flightService.getCurrentUserFlightDtosByAreas(departureArea, destinationArea, deptDate));
+    }
+
+    @GetMapping(value = "/search/connections",
+            params = {"departureAirportCode", "destinationAirportCode", "departureDate"})
+    @Operation(summary = "Search for itineraries, possibly with connections, by departure/destination airport codes and departure date(yyyy-MM-dd).",
+            description = "Returns up to 'limit' itineraries of at most 'maxLegs' flights, earliest arrival first. " +
+                    "Connecting flights depart at least 'minConnectionMinutes' after the previous one arrives.")
+    public ResponseEntity<List<ItineraryDto>> findConnections(
+            @RequestParam("departureAirportCode") String departureAirportCode,
+            @RequestParam("destinationAirportCode") String destinationAirportCode,
+            @RequestParam("departureDate") String departureDate,
+            @RequestParam(value = "maxLegs", defaultValue = "3") @Min(1) @Max(4) int maxLegs,
+            @RequestParam(value = "limit", defaultValue = "5") @Min(1) @Max(20) int limit,
+            @RequestParam(value = "minConnectionMinutes", defaultValue = "60") @Min(0) @Max(1440) int minConnectionMinutes) {
+        log.info("Searching for current user's connections from {} to {} on {}, up to {} legs.",
+                departureAirportCode, destinationAirportCode, departureDate, maxLegs);
+        var depAirport = airportService.getCurrentUserAirportByCode(departureAirportCode);
+        var destAirport = airportService.getCurrentUserAirportByCode(destinationAirportCode);
+        var deptDate = LocalDate.parse(departureDate, DATE_TIME_FORMATTER);
+
+        return ResponseEntity.ok(flightService.getCurrentUserConnections(depAirport, destAirport, deptDate,
+                maxLegs, limit, minConnectionMinutes));
+    }
+
+    @GetMapping(value = "/search/calendar",
+            params = {"departureAirportCode", "destinationAirportCode", "departureDate"})
+    @Operation(summary = "Flexible-date search: the lowest flight charge and the number of flights per day around the departure date(yyyy-MM-dd).",
+            description = "Covers 'flexDays' days before and after the departure date in a single request.")
+    public ResponseEntity<List<FareCalendarDayDto>> findFareCalendar(
+            @RequestParam("departureAirportCode") String departureAirportCode,
+            @RequestParam("destinationAirportCode") String destinationAirportCode,
+            @RequestParam("departureDate") String departureDate,
+            @RequestParam(value = "flexDays", defaultValue = "3") @Min(0) @Max(15) int flexDays) {
+        log.info("Building current user's fare calendar from {} to {} on {} +/- {} days.",
+                departureAirportCode, destinationAirportCode, departureDate, flexDays);
+        var depAirport = airportService.getCurrentUserAirportByCode(departureAirportCode);
+        var destAirport = airportService.getCurrentUserAirportByCode(destinationAirportCode);
+        var deptDate = LocalDate.parse(departureDate, DATE_TIME_FORMATTER);
+
+        return ResponseEntity.ok(flightService.getCurrentUserFareCalendar(depAirport, destAirport, deptDate, flexDays));
+    }
+
     @PostMapping("/book/{flightId}")
     @Operation(summary = "Attempt to book a ticket for the flight.",
             description = """
@@ -197,58 +269,130 @@ public class FlightRestController extends AbstractRestController<Flight, FlightD
                       "phoneNumber": "+01234567890",
                       "passportNumber": "9988 453627",
                       "email": "Vas.Lo@ilf.petrov",
-                      "address": "Tam, za ozerom, d.144"
-                    }</br></pre>""")
-    public ResponseEntity<PassengerDto> bookFlight(@Valid @RequestBody PassengerDto passengerDto,
-                                                   @PathVariable("flightId") long flightId) {
+                      "address": "Tam, za ozerom, d.144",
+                      "seatNumber": 12
+                    }</br></pre>
+                    The seat number is optional, a free seat is picked when omitted.
+                    </br>When the flight is full and no seat is requested, the passenger is put on the waitlist
+                    with 202 Accepted, and booked automatically once a booking is cancelled.""")
+    public ResponseEntity<?> bookFlight(@Valid @RequestBody PassengerDto passengerDto,
+                                        @PathVariable("flightId") long flightId,
+                                        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("Booking for the flight {}.", flightId);
-        var flight = flightService.getById(flightId);
-        log.info("Found the flight, it is {} !", flight.getFlightNumber());
-
-        var existingWithTheSamePassportNumber =
-                passengerService.getAllByByPassportNumber(passengerDto.getPassportNumber());
-        var samePassportSameFlight =
-                existingWithTheSamePassportNumber.stream().anyMatch(p -> flightId == p.getFlight().getFlightId());
-        if (samePassportSameFlight) {
-            throw new DataIntegrityViolationException("Unfortunately human clones are not allowed on flight " + flight.getFlightNumber());
-        }
+        return idempotent("book", idempotencyKey, Arrays.asList(flightId, passengerDto), () -> {
+            var result = bookingService.bookFlight(flightId, toPassenger(passengerDto));
+            if (result.isWaitlisted()) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(toWaitlistEntryDto(result));
+            }
+            return ResponseEntity.ok(toPassengerDto(result.passenger()));
+        });
+    }
+
+    @GetMapping("/{flightId}/seats")
+    @Operation(summary = "Get the seat map of the flight.")
+    public ResponseEntity<SeatMapDto> getSeatMap(@PathVariable("flightId") long flightId) {
+        log.info("Getting the seat map of the flight {}.", flightId);
+        return ResponseEntity.ok(bookingService.getSeatMap(flightId));
+    }
+
+    @PostMapping("/book/{flightId}/group")
+    @Operation(summary = "Attempt to book tickets for a party of up to 50 passengers at once.",
+            description = "Either the whole party is booked or nobody is. Seat numbers are optional, as for a single booking.")
+    public ResponseEntity<List<PassengerDto>> bookGroup(@RequestBody @NotEmpty @Size(max = 50) List<@Valid PassengerDto> party,
+                                                        @PathVariable("flightId") long flightId,
+                                                        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.info("Booking a party of {} for the flight {}.", party.size(), flightId);
+        return idempotent("bookGroup", idempotencyKey, Arrays.asList(flightId, party), () -> {
+            var savedPassengers = bookingService.bookGroup(flightId, party.stream().map(this::toPassenger).toList());
+            return ResponseEntity.ok(savedPassengers.stream().map(this::toPassengerDto).toList());
+        });
+    }
+
+    @PostMapping("/{flightId}/holds")
+    @Operation(summary = "Hold a seat on the flight for a few minutes, to be confirmed with the passenger details.",
+            description = "A free seat is picked when no seat number is given. An unconfirmed hold expires and its seat is given back.")
+    public ResponseEntity<SeatHoldDto> holdSeat(@PathVariable("flightId") long flightId,
+                                                @RequestParam(value = "seatNumber", required = false) @Min(1) Integer seatNumber,
+                                                @RequestParam(value = "minutes", defaultValue = "10") @Min(1) @Max(30) int minutes) {
+        log.info("Holding a seat on the flight {} for {} minutes.", flightId, minutes);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(bookingService.holdSeat(flightId, seatNumber, Duration.ofMinutes(minutes)));
+    }
 
-        var passenger = toPassenger(passengerDto);
-        passenger.setFlight(flight);
-        var savedPassenger = passengerService.save(passenger);
+    @PostMapping("/holds/{holdId}/confirm")
+    @Operation(summary = "Confirm a seat hold by booking it for the passenger.")
+    public ResponseEntity<PassengerDto> confirmHold(@PathVariable("holdId") String holdId,
+                                                    @Valid @RequestBody PassengerDto passengerDto) {
+        log.info("Confirming the seat hold {}.", holdId);
+        var savedPassenger = bookingService.confirmHold(holdId, toPassenger(passengerDto));
 
         return ResponseEntity.ok(toPassengerDto(savedPassenger));
     }
 
+    @DeleteMapping("/holds/{holdId}")
+    @Operation(summary = "Release a seat hold before it expires.")
+    public ResponseEntity<String> releaseHold(@PathVariable("holdId") String holdId) {
+        log.info("Releasing the seat hold {}.", holdId);
+        bookingService.releaseHold(holdId);
+        return ResponseEntity.ok("Released seat hold " + holdId);
+    }
+
     @GetMapping("/book/verify")
     @Operation(summary = "Attempt to verify booking by flightId and passengerId.")
     public ResponseEntity<PassengerDto> verifyBooking(@RequestParam("passengerId") long passengerId,
                                                       @RequestParam("flightId") long flightId) {
         log.info("Verifying booking for passenger {} and flight {}.", passengerId, flightId);
-        var flight = flightService.getById(flightId);
-        log.info("Found the flight, it is {}.", flight.getFlightNumber());
-        var foundPassenger = flight.getPassengers()
-                .stream()
-                .filter(p -> p.getPassengerId() == passengerId)
-                .findFirst()
-                .orElseThrow(() -> new EntityNotFoundException(
-                        String.format("No passenger %s assigned to the flight %s was found", passengerId, flightId)));
+        return ResponseEntity.ok(toPassengerDto(bookingService.getBooking(flightId, passengerId)));
+    }
 
-        return ResponseEntity.ok(toPassengerDto(foundPassenger));
+    @GetMapping("/book/reference/{bookingReference}")
+    @Operation(summary = "Find a booking by its 6 character reference, as given at booking time.")
+    public ResponseEntity<PassengerDto> getBookingByReference(@PathVariable("bookingReference") @NotBlank @Size(max = 6) String bookingReference) {
+        log.info("Looking the booking {} up.", bookingReference);
+        return ResponseEntity.ok(toPassengerDto(bookingService.getBooking(bookingReference)));
     }
 
     @DeleteMapping("/book/cancel/{passengerId}")
     @Operation(summary = "Attempt to cancel a booking.")
     public ResponseEntity<String> cancelBooking(@PathVariable("passengerId") long passengerId) {
         log.info("Canceling booking for {}", passengerId);
-        passengerService.deleteById(passengerId);
+        bookingService.cancelBooking(passengerId);
         return ResponseEntity.ok("Something was canceled for passenger " + passengerId);
     }
 
+    @PostMapping("/book/cancel")
+    @Operation(summary = "Attempt to cancel up to 1000 bookings at once.",
+            description = "Bookings of other users and unknown ids are skipped. The freed seats go to the waitlists.")
+    public ResponseEntity<String> cancelBookings(@RequestBody @NotEmpty @Size(max = 1000) List<@NotNull Long> passengerIds) {
+        log.info("Canceling {} bookings.", passengerIds.size());
+        int cancelled = bookingService.cancelBookings(passengerIds);
+        return ResponseEntity.ok("Canceled " + cancelled + " bookings");
+    }
+
+    @DeleteMapping("/{flightId}/bookings")
+    @Operation(summary = "Attempt to cancel all the bookings and the waitlist of the flight.")
+    public ResponseEntity<String> cancelAllBookings(@PathVariable("flightId") long flightId) {
+        log.info("Canceling all the bookings for the flight {}.", flightId);
+        int cancelled = bookingService.cancelAllOnFlight(flightId);
+        return ResponseEntity.ok("Canceled " + cancelled + " bookings for the flight " + flightId);
+    }
+
     private PassengerDto toPassengerDto(Passenger entity) {
         return modelMapper.map(entity, PassengerDto.class);
     }
 
+    private WaitlistEntryDto toWaitlistEntryDto(BookingResult result) {
+        var entry = result.waitlistEntry();
+        return WaitlistEntryDto.builder()
+                .waitlistEntryId(entry.getWaitlistEntryId())
+                .flightId(entry.getFlight().getFlightId())
+                .position(result.position())
+                .firstName(entry.getFirstName())
+                .lastName(entry.getLastName())
+                .passportNumber(entry.getPassportNumber())
+                .build();
+    }
+
     private Passenger toPassenger(PassengerDto entityDto) {
         return modelMapper.map(entityDto, Passenger.class);
     }
@@ -1,5 +1,10 @@
 package com.aerotravel.flightticketbooking.rest.v0.aux;
 
+import com.aerotravel.flightticketbooking.security.TokenDenylist;
+import com.aerotravel.flightticketbooking.security.VerifiedTokenCache;
+import com.aerotravel.flightticketbooking.services.cache.CurrentUserCache;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import com.aerotravel.flightticketbooking.services.cache.IdempotencyStore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.TreeMap;
 import java.util.stream.StreamSupport;
 
@@ -28,6 +34,46 @@ public class DebugRestController {
     private Environment environment;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private FlightSearchCache flightSearchCache;
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+    @Autowired
+    private CurrentUserCache currentUserCache;
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @GetMapping("/cache/search")
+    @Operation(summary = "Get flight search cache statistics: size, hits, misses, evictions etc.")
+    public Map<String, Object> searchCacheStats() {
+        return flightSearchCache.getStats();
+    }
+
+    @GetMapping("/cache/idempotency")
+    @Operation(summary = "Get idempotency key store statistics: size, replays, conflicts etc.")
+    public Map<String, Object> idempotencyStoreStats() {
+        return idempotencyStore.getStats();
+    }
+
+    @GetMapping("/cache/tokens")
+    @Operation(summary = "Get verified JWT cache statistics: size, hits, misses, evictions etc.")
+    public Map<String, Object> verifiedTokenCacheStats() {
+        return verifiedTokenCache.getStats();
+    }
+
+    @GetMapping("/cache/users")
+    @Operation(summary = "Get current user cache statistics: size, request hits, hits, misses etc.")
+    public Map<String, Object> currentUserCacheStats() {
+        return currentUserCache.getStats();
+    }
+
+    @GetMapping("/cache/revoked-tokens")
+    @Operation(summary = "Get revoked JWT denylist statistics: size, checks, filter positives, hits etc.")
+    public Map<String, Object> tokenDenylistStats() {
+        return tokenDenylist.getStats();
+    }
 
     @GetMapping("/show")
     @Operation(summary = "Get debug info.")
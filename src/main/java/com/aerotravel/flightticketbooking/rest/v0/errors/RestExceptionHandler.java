@@ -1,6 +1,9 @@
 package com.aerotravel.flightticketbooking.rest.v0.errors;
 
 import com.aerotravel.flightticketbooking.exception.EntityNotFoundException;
+import com.aerotravel.flightticketbooking.exception.IdempotencyConflictException;
+import com.aerotravel.flightticketbooking.exception.InvalidIdempotencyKeyException;
+import com.aerotravel.flightticketbooking.exception.InvalidCursorException;
 import com.aerotravel.flightticketbooking.model.response.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -72,13 +75,21 @@ public class RestExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
-    @ExceptionHandler({DataIntegrityViolationException.class, HttpMessageConversionException.class})
+    @ExceptionHandler({DataIntegrityViolationException.class, HttpMessageConversionException.class,
+            InvalidCursorException.class, InvalidIdempotencyKeyException.class})
     public ResponseEntity<Object> handleBadRequest(Exception ex, WebRequest request) {
         log.error("Something was violated upon handling the request: {}", request, ex);
         var error = new ErrorResponse(HttpStatus.BAD_REQUEST.toString(), ex.getMessage(), findAllCauses(ex));
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler({IdempotencyConflictException.class})
+    public ResponseEntity<Object> handleConflict(Exception ex, WebRequest request) {
+        log.warn("Conflicting request: {} {}", request.getDescription(false), ex.getMessage());
+        var error = new ErrorResponse(HttpStatus.CONFLICT.toString(), ex.getMessage(), List.of(ex.getMessage()));
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
     @ResponseBody
     @ExceptionHandler(ConstraintViolationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
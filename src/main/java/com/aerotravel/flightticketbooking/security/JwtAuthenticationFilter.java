@@ -8,6 +8,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,6 +17,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
 
 @Component
 @RequiredArgsConstructor
@@ -24,6 +26,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenUtil jwtTokenUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenDenylist tokenDenylist;
 
     @Override
     protected void doFilterInternal(
@@ -34,7 +38,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         // Skip JWT processing for certain paths
         String requestPath = request.getServletPath();
@@ -60,22 +63,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
         try {
-            username = jwtTokenUtil.extractUsername(jwt);
+            // Verified once, the claims are checked against the user below without parsing again.
+            var token = jwtTokenUtil.verify(jwt);
+            var username = token.subject();
+            var principal = TokenPrincipal.of(token);
 
-            if (username != null) {
+            if (tokenDenylist.isRevoked(token.tokenId())) {
+                log.warn("Revoked JWT token for user: {}", username);
+            } else if (principal != null) {
+                // The claims are enough, the user is not loaded: only the token version is checked.
+                if (tokenVersionRegistry.isCurrent(principal.userId(), principal.tokenVersion())) {
+                    authenticate(request, principal, principal.getAuthorities());
+                } else {
+                    log.warn("Revoked JWT token for user: {}", username);
+                }
+            } else if (username != null) {
+                // Issued before the user claims were added, so the user is loaded until the token expires.
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
                 
-                if (jwtTokenUtil.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
-                    );
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    log.debug("JWT authentication successful for user: {}", username);
+                if (jwtTokenUtil.isTokenValid(token, userDetails)) {
+                    authenticate(request, userDetails, userDetails.getAuthorities());
                 } else {
                     log.warn("Invalid JWT token for user: {}", username);
                 }
@@ -87,6 +94,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private static void authenticate(HttpServletRequest request, Object principal,
+                                     Collection<? extends GrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                authorities
+        );
+        authToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        log.debug("JWT authentication successful for user: {}", authToken.getName());
+    }
+
     private boolean shouldSkipJwtProcessing(String requestPath) {
         return requestPath.equals("/api/auth/login") ||
                requestPath.equals("/api/auth/register") ||
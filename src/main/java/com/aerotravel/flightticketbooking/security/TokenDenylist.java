@@ -0,0 +1,143 @@
+package com.aerotravel.flightticketbooking.security;
+
+import com.aerotravel.flightticketbooking.model.RevokedToken;
+import com.aerotravel.flightticketbooking.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The revoked tokens by id (jti), checked on every request in memory.
+ * <p>
+ * A Bloom filter answers most checks, i.e. for the tokens never revoked; the exact set only settles its positives.
+ * The revocations are stored as well: they are loaded on start, the ones made by other instances are picked up
+ * periodically, and all of them are dropped once the tokens have expired, when the filter is rebuilt.
+ */
+@Slf4j
+@Component
+public class TokenDenylist {
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+    // Allowance for the clocks of the instances and the transactions committing out of order.
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedSize;
+    private final ConcurrentHashMap<String, Instant> revoked = new ConcurrentHashMap<>();
+    // Replaced as a whole when rebuilt; the additions and the rebuilds are serialized by the lock below.
+    private volatile BloomFilter filter;
+    private final Object writeLock = new Object();
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder filterPositives = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    @Autowired
+    public TokenDenylist(RevokedTokenRepository revokedTokenRepository,
+                         @Value("${ftb.jwt.denylist.expected-size:100000}") int expectedSize) {
+        if (expectedSize < 1) throw new IllegalArgumentException("Token denylist expected size shall be positive.");
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedSize = expectedSize;
+        this.filter = new BloomFilter(expectedSize, FALSE_POSITIVE_PROBABILITY);
+    }
+
+    @PostConstruct
+    void load() {
+        sync();
+        log.info("Loaded {} revoked tokens.", revoked.size());
+    }
+
+    /**
+     * @return {@code false} for a token without an id, i.e. issued before the ids were added.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (null == tokenId) return false;
+
+        checks.increment();
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        filterPositives.increment();
+        if (!revoked.containsKey(tokenId)) {
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * Revokes the token until it expires. It is refused by this instance at once, by the others after their next sync.
+     */
+    @Transactional
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (null == tokenId || null == expiresAt || !expiresAt.isAfter(Instant.now())) return;
+
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(tokenId)
+                .expiresAt(expiresAt)
+                .revokedAt(Instant.now())
+                .build());
+        add(tokenId, expiresAt);
+    }
+
+    /**
+     * Picks up the revocations made since the previous sync, e.g. by other instances.
+     */
+    @Scheduled(fixedDelayString = "${ftb.jwt.denylist.sync-interval-ms:10000}", initialDelayString = "${ftb.jwt.denylist.sync-interval-ms:10000}")
+    public void sync() {
+        var now = Instant.now();
+        var since = Instant.EPOCH.equals(lastSync) ? Instant.EPOCH : lastSync.minus(SYNC_OVERLAP);
+        revokedTokenRepository.findActiveRevokedSince(since, now).forEach(t -> add(t.getTokenId(), t.getExpiresAt()));
+        lastSync = now;
+    }
+
+    /**
+     * Drops the expired tokens from the store and from memory, and rebuilds the filter without them,
+     * sized for the tokens left.
+     */
+    @Transactional
+    @Scheduled(cron = "${ftb.jwt.denylist.prune-cron:0 23 * * * *}")
+    public void prune() {
+        var now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        synchronized (writeLock) {
+            revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+            var rebuilt = new BloomFilter(Math.max(expectedSize, 2 * revoked.size()), FALSE_POSITIVE_PROBABILITY);
+            revoked.keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+        }
+        if (deleted > 0) {
+            log.info("Pruned {} expired revoked tokens.", deleted);
+        }
+    }
+
+    private void add(String tokenId, Instant expiresAt) {
+        synchronized (writeLock) {
+            revoked.put(tokenId, expiresAt);
+            filter.add(tokenId);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("size", revoked.size());
+        stats.put("expectedSize", expectedSize);
+        stats.put("checks", checks.sum());
+        stats.put("filterPositives", filterPositives.sum());
+        stats.put("hits", hits.sum());
+        stats.put("lastSync", lastSync.toString());
+        return stats;
+    }
+}
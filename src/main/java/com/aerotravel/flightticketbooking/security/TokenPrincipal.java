@@ -0,0 +1,40 @@
+package com.aerotravel.flightticketbooking.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.List;
+
+import static com.aerotravel.flightticketbooking.security.JwtTokenUtil.CLAIM_ROLE;
+import static com.aerotravel.flightticketbooking.security.JwtTokenUtil.CLAIM_TOKEN_VERSION;
+import static com.aerotravel.flightticketbooking.security.JwtTokenUtil.CLAIM_USER_ID;
+
+/**
+ * The user an API request is authenticated as, taken from the claims of its verified token alone.
+ */
+public record TokenPrincipal(long userId, String username, String role, int tokenVersion) implements AuthenticatedPrincipal {
+
+    /**
+     * @return {@code null} for a token issued before the claims were added.
+     */
+    static TokenPrincipal of(VerifiedToken token) {
+        if (null == token.subject()
+                || !(token.claims().get(CLAIM_USER_ID) instanceof Number userId)
+                || !(token.claims().get(CLAIM_ROLE) instanceof String role)
+                || !(token.claims().get(CLAIM_TOKEN_VERSION) instanceof Number tokenVersion)) {
+            return null;
+        }
+        return new TokenPrincipal(userId.longValue(), token.subject(), role, tokenVersion.intValue());
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        // Only the current active role, as for the session logins.
+        return AuthorityUtils.createAuthorityList(role);
+    }
+}
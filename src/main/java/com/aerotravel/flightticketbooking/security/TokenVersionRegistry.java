@@ -0,0 +1,97 @@
+package com.aerotravel.flightticketbooking.security;
+
+import com.aerotravel.flightticketbooking.repository.UserRepository;
+import com.aerotravel.flightticketbooking.transaction.TransactionHooks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+
+/**
+ * Tells whether the tokens of a user are still honoured, without a database round trip per request.
+ * <p>
+ * Every token carries the token version of its user. Bumping the version, e.g. on a role switch, revokes
+ * the tokens issued before. The versions and the account states are read from the database once per TTL
+ * per user, which bounds how long a change made elsewhere, e.g. a disabled account or another instance,
+ * takes to apply. When the registry is full, the expired entries go first, then the least recently used ones.
+ */
+@Slf4j
+@Component
+public class TokenVersionRegistry {
+
+    // A full registry is swept for expired entries at most once per this period, otherwise the LRU one goes.
+    private static final long SWEEP_PERIOD_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final UserRepository userRepository;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long nextSweep = System.nanoTime();
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${ftb.jwt.version-cache.max-size:10000}") int maxSize,
+                                @Value("${ftb.jwt.version-ttl:PT1M}") Duration ttl) {
+        if (maxSize < 1) throw new IllegalArgumentException("Token version registry max size shall be positive.");
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public boolean isCurrent(long userId, int tokenVersion) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(userId);
+            if (null != entry && isExpired(entry, System.nanoTime())) {
+                entries.remove(userId);
+                entry = null;
+            }
+        }
+        if (null == entry) {
+            entry = load(userId);
+        }
+        return entry.active() && entry.tokenVersion() == tokenVersion;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Revokes the tokens issued to the user before, once the transaction changing the version commits.
+     */
+    public void onTokenVersionChanged(long userId, int tokenVersion) {
+        TransactionHooks.afterCommit(() -> put(userId, new Entry(tokenVersion, true, System.nanoTime() + ttlNanos)));
+    }
+
+    private Entry load(long userId) {
+        long expiresAt = System.nanoTime() + ttlNanos;
+        var entry = userRepository.findTokenStateById(userId)
+                .map(state -> new Entry(state.tokenVersion(), state.isActive(), expiresAt))
+                .orElseGet(() -> new Entry(-1, false, expiresAt));
+        put(userId, entry);
+        return entry;
+    }
+
+    private synchronized void put(long userId, Entry entry) {
+        entries.put(userId, entry);
+        if (entries.size() <= maxSize) return;
+
+        long now = System.nanoTime();
+        if (now - nextSweep >= 0) {
+            nextSweep = now + SWEEP_PERIOD_NANOS;
+            entries.values().removeIf(e -> isExpired(e, now));
+        }
+        if (entries.size() > maxSize) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+    }
+
+    private static boolean isExpired(Entry entry, long now) {
+        return entry.expiresAt() - now <= 0;
+    }
+
+    private record Entry(int tokenVersion, boolean active, long expiresAt) {
+    }
+}
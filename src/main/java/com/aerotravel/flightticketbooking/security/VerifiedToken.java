@@ -0,0 +1,40 @@
+package com.aerotravel.flightticketbooking.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * The claims of a token with a verified signature. Immutable, so that the requests bearing the same token
+ * may share it.
+ */
+public record VerifiedToken(String subject, Instant issuedAt, Instant expiresAt, Map<String, Object> claims) {
+
+    public VerifiedToken {
+        claims = Map.copyOf(claims);
+    }
+
+    static VerifiedToken of(Claims claims) {
+        return new VerifiedToken(claims.getSubject(),
+                null == claims.getIssuedAt() ? null : claims.getIssuedAt().toInstant(),
+                null == claims.getExpiration() ? null : claims.getExpiration().toInstant(),
+                claims);
+    }
+
+    public boolean isExpired(Instant now) {
+        return null != expiresAt && !now.isBefore(expiresAt);
+    }
+
+    /**
+     * @return the jti, {@code null} for a token issued before the ids were added.
+     */
+    public String tokenId() {
+        return getClaim("jti", String.class);
+    }
+
+    public <T> T getClaim(String name, Class<T> type) {
+        var value = claims.get(name);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+}
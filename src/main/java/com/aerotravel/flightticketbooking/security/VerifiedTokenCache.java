@@ -0,0 +1,119 @@
+package com.aerotravel.flightticketbooking.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of recently verified tokens, so that the repeated requests bearing the same token skip
+ * the parsing and the signature check.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the token, so the tokens themselves are not kept in memory.
+ * An entry is dropped once its token expires; when the cache is full, the expired entries go first,
+ * then the least recently used ones.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    // A full cache is swept for expired entries at most once per this period, otherwise the LRU one goes.
+    private static final Duration SWEEP_PERIOD = Duration.ofSeconds(1);
+
+    private final int maxSize;
+    private final Clock clock;
+    private final LinkedHashMap<String, VerifiedToken> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private Instant nextSweep = Instant.MIN;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${ftb.jwt.verified-cache.max-size:10000}") int maxSize) {
+        this(maxSize, Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(int maxSize, Clock clock) {
+        if (maxSize < 1) throw new IllegalArgumentException("Verified token cache max size shall be positive.");
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * @param verifier parses and verifies the token upon a miss; it throws for a token which is not valid,
+     *                 so that nothing is cached for it.
+     */
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        var key = digest(token);
+        synchronized (this) {
+            var cached = entries.get(key);
+            if (null != cached) {
+                if (!cached.isExpired(clock.instant())) {
+                    hits.increment();
+                    return cached;
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+            misses.increment();
+        }
+
+        var verified = verifier.apply(token);
+        if (null == verified.expiresAt()) {
+            // Never expires, so it would never leave the cache on its own.
+            return verified;
+        }
+        synchronized (this) {
+            entries.put(key, verified);
+            if (entries.size() > maxSize) {
+                evict(clock.instant());
+            }
+        }
+        return verified;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    private void evict(Instant now) {
+        if (!now.isBefore(nextSweep)) {
+            nextSweep = now.plus(SWEEP_PERIOD);
+            int before = entries.size();
+            entries.values().removeIf(token -> token.isExpired(now));
+            expirations.add(before - entries.size());
+        }
+        if (entries.size() > maxSize) {
+            entries.remove(entries.keySet().iterator().next());
+            evictions.increment();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
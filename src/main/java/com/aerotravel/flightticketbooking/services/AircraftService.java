@@ -2,8 +2,10 @@ package com.aerotravel.flightticketbooking.services;
 
 import com.aerotravel.flightticketbooking.exception.EntityNotFoundException;
 import com.aerotravel.flightticketbooking.model.Aircraft;
+import com.aerotravel.flightticketbooking.model.dto.AircraftDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AircraftService extends EntityService<Aircraft> {
     List<Aircraft> getByModel(String modelName);
@@ -18,6 +20,9 @@ public interface AircraftService extends EntityService<Aircraft> {
     List<Aircraft> getCurrentUserAircraftByManufacturer(String manufacturerName);
     Aircraft saveAircraftForCurrentUser(Aircraft aircraft);
 
+    // Lean read path, no entities are loaded
+    void forEachCurrentUserAircraftDto(Consumer<AircraftDto> consumer);
+
     default EntityNotFoundException buildEntityNotFoundException(long id) {
         return buildEntityNotFoundException("Aircraft", id);
     }
@@ -2,6 +2,7 @@ package com.aerotravel.flightticketbooking.services;
 
 import com.aerotravel.flightticketbooking.exception.EntityNotFoundException;
 import com.aerotravel.flightticketbooking.model.Airport;
+import com.aerotravel.flightticketbooking.model.dto.AirportSuggestionDto;
 
 import java.util.List;
 
@@ -11,6 +12,7 @@ public interface AirportService extends EntityService<Airport> {
     List<Airport> getCurrentUserAirports();
     Airport getCurrentUserAirportByCode(String airportCode);
     Airport saveAirportForCurrentUser(Airport airport);
+    List<AirportSuggestionDto> suggestCurrentUserAirports(String query, int limit);
 
     default EntityNotFoundException buildEntityNotFoundException(long id) {
         return buildEntityNotFoundException("Airport", id);
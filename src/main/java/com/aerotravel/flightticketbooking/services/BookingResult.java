@@ -0,0 +1,22 @@
+package com.aerotravel.flightticketbooking.services;
+
+import com.aerotravel.flightticketbooking.model.Passenger;
+import com.aerotravel.flightticketbooking.model.WaitlistEntry;
+
+/**
+ * Either the booked passenger, or the waitlist entry and its 1-based position when the flight is full.
+ */
+public record BookingResult(Passenger passenger, WaitlistEntry waitlistEntry, int position) {
+
+    public static BookingResult booked(Passenger passenger) {
+        return new BookingResult(passenger, null, 0);
+    }
+
+    public static BookingResult waitlisted(WaitlistEntry entry, int position) {
+        return new BookingResult(null, entry, position);
+    }
+
+    public boolean isWaitlisted() {
+        return null != waitlistEntry;
+    }
+}
@@ -0,0 +1,23 @@
+package com.aerotravel.flightticketbooking.services;
+
+import com.aerotravel.flightticketbooking.model.Passenger;
+import com.aerotravel.flightticketbooking.model.dto.SeatHoldDto;
+import com.aerotravel.flightticketbooking.model.dto.SeatMapDto;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+public interface BookingService {
+    BookingResult bookFlight(long flightId, Passenger passenger);
+    List<Passenger> bookGroup(long flightId, List<Passenger> party);
+    void cancelBooking(long passengerId);
+    int cancelBookings(Collection<Long> passengerIds);
+    int cancelAllOnFlight(long flightId);
+    Passenger getBooking(String bookingReference);
+    Passenger getBooking(long flightId, long passengerId);
+    SeatMapDto getSeatMap(long flightId);
+    SeatHoldDto holdSeat(long flightId, Integer seatNumber, Duration duration);
+    Passenger confirmHold(String holdId, Passenger passenger);
+    void releaseHold(String holdId);
+}
@@ -1,19 +1,32 @@
 package com.aerotravel.flightticketbooking.services;
 
 import com.aerotravel.flightticketbooking.exception.EntityNotFoundException;
+import com.aerotravel.flightticketbooking.model.dto.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EntityService<E> {
     Page<E> getAllPaged(int pageNum);
 
     Page<E> getPaged(Pageable pageable);
 
+    /**
+     * @param cursor the next cursor of the previous page, {@code null} for the first page.
+     */
+    CursorPage<E> getCursorPage(String cursor, int size);
+
     List<E> getAll();
 
+    /**
+     * Hands the same entities as {@link #getAll()} to the consumer one by one, without materializing them all.
+     * The entities are valid within the call only.
+     */
+    void forEach(Consumer<E> consumer);
+
     E getById(Long id);
 
     Optional<E> getOptionallyById(Long id);
@@ -3,9 +3,13 @@ package com.aerotravel.flightticketbooking.services;
 import com.aerotravel.flightticketbooking.exception.EntityNotFoundException;
 import com.aerotravel.flightticketbooking.model.Airport;
 import com.aerotravel.flightticketbooking.model.Flight;
+import com.aerotravel.flightticketbooking.model.dto.FareCalendarDayDto;
+import com.aerotravel.flightticketbooking.model.dto.FlightDto;
+import com.aerotravel.flightticketbooking.model.dto.ItineraryDto;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface FlightService extends EntityService<Flight> {
     List<Flight> getAllByAirportAndDepartureTime(Airport depAirport, Airport destAirport, LocalDate depDate);
@@ -18,6 +22,19 @@ public interface FlightService extends EntityService<Flight> {
     List<Flight> getCurrentUserFlightsByAirports(Airport depAirport, Airport destAirport);
     List<Flight> getCurrentUserFlightsByFlightNumber(String flightNumber);
     Flight saveFlightForCurrentUser(Flight flight);
+    int deleteAllByAircraftId(long aircraftId);
+
+    // Lean read paths, no entities are loaded
+    List<FlightDto> getCurrentUserFlightDtosByAirportAndDepartureTime(Airport depAirport, Airport destAirport, LocalDate depDate);
+    List<FlightDto> getCurrentUserFlightDtosByAirports(Airport depAirport, Airport destAirport);
+    List<FlightDto> getCurrentUserFlightDtosByFlightNumber(String flightNumber);
+    List<FlightDto> getCurrentUserFlightDtosByAreas(String depArea, String destArea, LocalDate depDate);
+    void forEachCurrentUserFlightDto(Consumer<FlightDto> consumer);
+
+    List<ItineraryDto> getCurrentUserConnections(Airport depAirport, Airport destAirport, LocalDate depDate,
+                                                 int maxLegs, int limit, int minConnectionMinutes);
+    List<FareCalendarDayDto> getCurrentUserFareCalendar(Airport depAirport, Airport destAirport, LocalDate depDate,
+                                                        int flexDays);
 
     default EntityNotFoundException buildEntityNotFoundException(long id) {
         return buildEntityNotFoundException("Flight", id);
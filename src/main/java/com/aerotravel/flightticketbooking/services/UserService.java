@@ -13,6 +13,7 @@ public interface UserService extends UserDetailsService, EntityService<User> {
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     User getCurrentUser();
+    String getCurrentUsername();
     User switchUserRole(String roleName);
     boolean canSwitchToRole(String roleName);
     User getUserByUsername(String username);
@@ -0,0 +1,70 @@
+package com.aerotravel.flightticketbooking.services.cache;
+
+import com.aerotravel.flightticketbooking.model.projection.AirportSummary;
+import com.aerotravel.flightticketbooking.repository.AirportRepository;
+import com.aerotravel.flightticketbooking.services.search.AirportSuggestIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-owner in-memory airport code to airport id lookup along with the airport suggestions index.
+ * <p>
+ * Owners are keyed by username, so resolving a code needs neither the current user nor the airport query.
+ * An owner's airports are loaded lazily by a single lean query and dropped on every airport write of that owner.
+ * Codes are matched case-insensitively, the same way the database collation does.
+ */
+@Slf4j
+@Component
+public class AirportDirectory {
+
+    private final AirportRepository airportRepository;
+    private final ConcurrentHashMap<String, OwnerAirports> owners = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AirportDirectory(AirportRepository airportRepository) {
+        this.airportRepository = airportRepository;
+    }
+
+    public Optional<Long> findAirportId(String username, String airportCode) {
+        if (null == username || null == airportCode) return Optional.empty();
+
+        return Optional.ofNullable(owners.computeIfAbsent(username, this::load).codes().get(normalize(airportCode)));
+    }
+
+    public List<AirportSummary> suggest(String username, String query, int limit) {
+        if (null == username) return List.of();
+
+        return owners.computeIfAbsent(username, this::load).suggestions().suggest(query, limit);
+    }
+
+    public void evictOwner(String username) {
+        if (null == username) return;
+
+        owners.remove(username);
+    }
+
+    private OwnerAirports load(String username) {
+        var airports = airportRepository.findSummariesByOwnerUsername(username);
+        var codes = airports.stream()
+                .filter(airport -> null != airport.airportCode())
+                .collect(Collectors.toUnmodifiableMap(airport -> normalize(airport.airportCode()),
+                        AirportSummary::airportId, (first, second) -> first));
+        log.info("Loaded airport directory for {}: {} airports.", username, airports.size());
+        return new OwnerAirports(codes, AirportSuggestIndex.of(airports));
+    }
+
+    private static String normalize(String airportCode) {
+        return airportCode.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private record OwnerAirports(Map<String, Long> codes, AirportSuggestIndex suggestions) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.aerotravel.flightticketbooking.services.cache;
+
+import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.transaction.TransactionHooks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The current users by username, so resolving the current user does not query the database on every call.
+ * <p>
+ * A user is memoized for the web request it was resolved in, and kept across requests for a short TTL.
+ * The users are detached entities, fine for the owner references and the queries by owner but not to be modified:
+ * a change loads the user afresh and invalidates it here, which is repeated after the commit.
+ */
+@Component
+public class CurrentUserCache {
+
+    private static final String REQUEST_ATTRIBUTE = CurrentUserCache.class.getName() + ".user";
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation, so a user loaded concurrently with a change is not cached.
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder requestHits = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public CurrentUserCache(@Value("${ftb.current-user-cache.max-size:10000}") int maxSize,
+                            @Value("${ftb.current-user-cache.ttl:PT30S}") Duration ttl) {
+        if (maxSize < 1) throw new IllegalArgumentException("Current user cache max size shall be positive.");
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * @param loader runs upon a miss; it shall not return {@code null}.
+     */
+    public User get(String username, Function<String, User> loader) {
+        var request = RequestContextHolder.getRequestAttributes();
+        if (null != request
+                && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && username.equals(user.getUsername())) {
+            requestHits.increment();
+            return user;
+        }
+
+        var user = getShared(username, loader);
+        if (null != request) {
+            request.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    private User getShared(String username, Function<String, User> loader) {
+        var entry = entries.get(username);
+        if (null != entry && entry.expiresAt() - System.nanoTime() > 0) {
+            hits.increment();
+            return entry.user();
+        }
+        misses.increment();
+
+        long loadGeneration = generation.get();
+        var user = loader.apply(username);
+        if (entries.size() >= maxSize) {
+            long now = System.nanoTime();
+            entries.values().removeIf(e -> e.expiresAt() - now <= 0);
+        }
+        if (entries.size() < maxSize) {
+            entries.put(username, new Entry(user, System.nanoTime() + ttlNanos));
+            // Checked after the put, so an invalidation in between is not lost.
+            if (loadGeneration != generation.get()) {
+                entries.remove(username);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Drops the user, e.g. when its role or account changes.
+     */
+    public void invalidate(String username) {
+        TransactionHooks.nowAndAfterCommit(() -> {
+            generation.incrementAndGet();
+            if (null != entries.remove(username)) {
+                invalidations.increment();
+            }
+            var request = RequestContextHolder.getRequestAttributes();
+            if (null != request) {
+                request.removeAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            }
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", Duration.ofNanos(ttlNanos).toSeconds());
+        stats.put("requestHits", requestHits.sum());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private record Entry(User user, long expiresAt) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.aerotravel.flightticketbooking.services.cache;
+
+import com.aerotravel.flightticketbooking.model.Flight;
+import com.aerotravel.flightticketbooking.model.projection.FlightRoute;
+import com.aerotravel.flightticketbooking.repository.FlightRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-owner in-memory index of flights by route (departure airport, destination airport, departure date).
+ * <p>
+ * An owner's routes are loaded lazily by a single lean query upon the first search and are kept up to date
+ * by {@code FlightService} writes once they commit, so searches do not have to scan the flight table.
+ */
+@Slf4j
+@Component
+public class FlightRouteIndex {
+
+    private final FlightRepository flightRepository;
+    private final ConcurrentHashMap<Long, OwnerRoutes> owners = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FlightRouteIndex(FlightRepository flightRepository) {
+        this.flightRepository = flightRepository;
+    }
+
+    /**
+     * @param departureDate the date to look for; {@code null} means any date.
+     * @return ids of the owner's flights on the route.
+     */
+    public List<Long> findFlightIds(long ownerId, long departureAirportId, long destinationAirportId,
+                                    LocalDate departureDate) {
+        return owners.computeIfAbsent(ownerId, this::load)
+                .find(new RouteKey(departureAirportId, destinationAirportId), departureDate);
+    }
+
+    public void onFlightSaved(long ownerId, Flight flight) {
+        if (null == flight) return;
+
+        var route = new FlightRoute(flight.getFlightId(),
+                null == flight.getDepartureAirport() ? null : flight.getDepartureAirport().getAirportId(),
+                null == flight.getDestinationAirport() ? null : flight.getDestinationAirport().getAirportId(),
+                flight.getDepartureDate());
+        // Not loaded yet - nothing to update, the next search loads the fresh state.
+        owners.computeIfPresent(ownerId, (id, routes) -> {
+            routes.put(route);
+            return routes;
+        });
+    }
+
+    public void onFlightDeleted(long ownerId, long flightId) {
+        owners.computeIfPresent(ownerId, (id, routes) -> {
+            routes.remove(flightId);
+            return routes;
+        });
+    }
+
+    public void evictOwner(long ownerId) {
+        owners.remove(ownerId);
+    }
+
+    private OwnerRoutes load(long ownerId) {
+        var routes = new OwnerRoutes();
+        flightRepository.findRoutesByOwnerId(ownerId).forEach(routes::put);
+        log.info("Loaded route index for owner {}: {} flights.", ownerId, routes.size());
+        return routes;
+    }
+
+    private record RouteKey(long departureAirportId, long destinationAirportId) {
+    }
+
+    private static final class OwnerRoutes {
+        private final Map<RouteKey, Map<LocalDate, Set<Long>>> byRoute = new HashMap<>();
+        private final Map<Long, FlightRoute> byFlight = new HashMap<>();
+
+        synchronized void put(FlightRoute route) {
+            remove(route.flightId());
+            if (null == route.departureAirportId() || null == route.destinationAirportId()) {
+                return;
+            }
+
+            byFlight.put(route.flightId(), route);
+            byRoute.computeIfAbsent(toKey(route), k -> new HashMap<>())
+                    .computeIfAbsent(route.departureDate(), d -> new LinkedHashSet<>())
+                    .add(route.flightId());
+        }
+
+        synchronized void remove(long flightId) {
+            var existing = byFlight.remove(flightId);
+            if (null == existing) return;
+
+            var key = toKey(existing);
+            var byDate = byRoute.get(key);
+            var ids = byDate.get(existing.departureDate());
+            ids.remove(flightId);
+            if (ids.isEmpty()) {
+                byDate.remove(existing.departureDate());
+            }
+            if (byDate.isEmpty()) {
+                byRoute.remove(key);
+            }
+        }
+
+        synchronized List<Long> find(RouteKey key, LocalDate departureDate) {
+            var byDate = byRoute.get(key);
+            if (null == byDate) return List.of();
+
+            if (null != departureDate) {
+                var ids = byDate.get(departureDate);
+                return null == ids ? List.of() : new ArrayList<>(ids);
+            }
+
+            var result = new ArrayList<Long>();
+            byDate.values().forEach(result::addAll);
+            return result;
+        }
+
+        synchronized int size() {
+            return byFlight.size();
+        }
+
+        private static RouteKey toKey(FlightRoute route) {
+            return new RouteKey(route.departureAirportId(), route.destinationAirportId());
+        }
+    }
+}
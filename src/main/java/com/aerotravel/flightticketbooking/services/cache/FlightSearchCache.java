@@ -0,0 +1,180 @@
+package com.aerotravel.flightticketbooking.services.cache;
+
+import com.aerotravel.flightticketbooking.model.dto.FlightDto;
+import com.aerotravel.flightticketbooking.transaction.TransactionHooks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of flight search results keyed by owner, route and departure date.
+ * <p>
+ * Entries expire after a TTL and the least recently used ones are evicted once the size limit is reached.
+ * Writes invalidate precisely: by route for the flights which may now match a search,
+ * and by flight id for the cached results which already contain the changed flight.
+ * Within a transaction the invalidation is repeated after the commit, so results read in between are not kept.
+ * The DTOs are mutable, so the cache keeps its own copies and hands out fresh ones on every hit.
+ */
+@Slf4j
+@Component
+public class FlightSearchCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<SearchKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<RouteKey, Set<SearchKey>> byRoute = new HashMap<>();
+    private final Map<Long, Set<SearchKey>> byFlight = new HashMap<>();
+    // Bumped on every invalidation, so a result loaded concurrently with a write is not cached.
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public FlightSearchCache(@Value("${ftb.search-cache.max-size:10000}") int maxSize,
+                             @Value("${ftb.search-cache.ttl:PT5M}") Duration ttl) {
+        if (maxSize < 1) throw new IllegalArgumentException("Search cache max size shall be positive.");
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * @param departureDate the searched date; {@code null} means any date.
+     * @param loader        runs the search upon a miss; a copy of its result is cached.
+     */
+    public List<FlightDto> get(long ownerId, long departureAirportId, long destinationAirportId,
+                               LocalDate departureDate, Supplier<List<FlightDto>> loader) {
+        var key = new SearchKey(ownerId, departureAirportId, destinationAirportId, departureDate);
+        long loadGeneration;
+        synchronized (this) {
+            var entry = entries.get(key);
+            if (null != entry) {
+                if (entry.expiresAt() - System.nanoTime() > 0) {
+                    hits.increment();
+                    return copyOf(entry.flights());
+                }
+                remove(key);
+                expirations.increment();
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        var flights = List.copyOf(loader.get());
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                put(key, new Entry(copyOf(flights), System.nanoTime() + ttlNanos));
+            }
+        }
+        return flights;
+    }
+
+    /**
+     * Drops the results of the route searches, which the given flight may now belong to.
+     */
+    public void invalidateRoute(long ownerId, long departureAirportId, long destinationAirportId) {
+        var route = new RouteKey(ownerId, departureAirportId, destinationAirportId);
+        invalidateNowAndAfterCommit(() -> removeAll(byRoute.get(route)));
+    }
+
+    /**
+     * Drops the results containing the flight, e.g. when it is moved, deleted or (un)booked.
+     */
+    public void invalidateFlight(long flightId) {
+        invalidateNowAndAfterCommit(() -> removeAll(byFlight.get(flightId)));
+    }
+
+    public void invalidateOwner(long ownerId) {
+        invalidateNowAndAfterCommit(() -> removeAll(entries.keySet().stream().filter(k -> k.ownerId() == ownerId).toList()));
+    }
+
+    private void invalidateNowAndAfterCommit(Runnable invalidation) {
+        TransactionHooks.nowAndAfterCommit(() -> invalidate(invalidation));
+    }
+
+    private synchronized void invalidate(Runnable invalidation) {
+        generation++;
+        invalidation.run();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", Duration.ofNanos(ttlNanos).toSeconds());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private static List<FlightDto> copyOf(List<FlightDto> flights) {
+        return flights.stream()
+                .map(f -> f.toBuilder()
+                        .passengerIds(null == f.getPassengerIds() ? null : new ArrayList<>(f.getPassengerIds()))
+                        .build())
+                .toList();
+    }
+
+    private void put(SearchKey key, Entry entry) {
+        remove(key);
+        entries.put(key, entry);
+        byRoute.computeIfAbsent(key.route(), r -> new HashSet<>()).add(key);
+        entry.flights().forEach(f -> byFlight.computeIfAbsent(f.getFlightId(), id -> new HashSet<>()).add(key));
+
+        if (entries.size() > maxSize) {
+            var eldest = entries.keySet().iterator().next();
+            remove(eldest);
+            evictions.increment();
+        }
+    }
+
+    private void removeAll(Collection<SearchKey> keys) {
+        if (null == keys || keys.isEmpty()) return;
+
+        for (SearchKey key : List.copyOf(keys)) {
+            remove(key);
+            invalidations.increment();
+        }
+    }
+
+    private void remove(SearchKey key) {
+        var entry = entries.remove(key);
+        if (null == entry) return;
+
+        detach(byRoute, key.route(), key);
+        entry.flights().forEach(f -> detach(byFlight, f.getFlightId(), key));
+    }
+
+    private static <K> void detach(Map<K, Set<SearchKey>> index, K indexKey, SearchKey key) {
+        var keys = index.get(indexKey);
+        if (null == keys) return;
+
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            index.remove(indexKey);
+        }
+    }
+
+    private record RouteKey(long ownerId, long departureAirportId, long destinationAirportId) {
+    }
+
+    private record SearchKey(long ownerId, long departureAirportId, long destinationAirportId, LocalDate departureDate) {
+        RouteKey route() {
+            return new RouteKey(ownerId, departureAirportId, destinationAirportId);
+        }
+    }
+
+    private record Entry(List<FlightDto> flights, long expiresAt) {
+    }
+}
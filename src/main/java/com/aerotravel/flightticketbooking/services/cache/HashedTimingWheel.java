@@ -0,0 +1,192 @@
+package com.aerotravel.flightticketbooking.services.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashed timing wheel: a ring of buckets, one per tick, holding the timeouts due in that tick of any revolution.
+ * <p>
+ * Scheduling only appends to a queue and cancelling only flips a state, both O(1). Every tick the worker moves
+ * the newly scheduled timeouts into their buckets and expires the due ones of the current bucket; cancelled
+ * timeouts are dropped when their bucket comes round. Expiry is precise to a tick.
+ */
+@Slf4j
+public final class HashedTimingWheel<T> implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout<T>>[] buckets;
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private final Consumer<T> expiryHandler;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    private final AtomicLong pending = new AtomicLong();
+    // The next tick to process, guarded by this.
+    private long tick;
+    private Thread worker;
+
+    public HashedTimingWheel(Duration tickDuration, int wheelSize, Consumer<T> expiryHandler) {
+        this(tickDuration, wheelSize, expiryHandler, System::nanoTime);
+    }
+
+    /**
+     * @param wheelSize rounded up to a power of two; a revolution should cover the usual timeout.
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(Duration tickDuration, int wheelSize, Consumer<T> expiryHandler, LongSupplier nanoClock) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) throw new IllegalArgumentException("Tick shall be positive.");
+        if (wheelSize < 1 || wheelSize > 1 << 20) throw new IllegalArgumentException("Wheel size shall be within 1..2^20.");
+        this.tickNanos = tickDuration.toNanos();
+        int size = Integer.highestOneBit(((wheelSize - 1) << 1) | 1);
+        this.mask = size - 1;
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.expiryHandler = expiryHandler;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+    }
+
+    public Timeout<T> schedule(T item, Duration delay) {
+        long elapsed = nanoClock.getAsLong() - startNanos + Math.max(0, delay.toNanos());
+        var timeout = new Timeout<>(item, Math.ceilDiv(elapsed, tickNanos));
+        scheduled.add(timeout);
+        pending.incrementAndGet();
+        return timeout;
+    }
+
+    public long getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Processes the ticks passed since the last call, expiring the due timeouts.
+     * Called by the worker thread, yet may be called directly when there is none.
+     *
+     * @return the number of timeouts expired.
+     */
+    public synchronized int advance() {
+        long currentTick = (nanoClock.getAsLong() - startNanos) / tickNanos;
+        int expired = 0;
+        for (; tick <= currentTick; tick++) {
+            transferScheduled();
+            expired += expireBucket();
+        }
+        return expired;
+    }
+
+    public synchronized void start() {
+        if (null != worker) return;
+
+        worker = new Thread(this::run, "timing-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (null != worker) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                long nextTickNanos;
+                synchronized (this) {
+                    nextTickNanos = startNanos + tick * tickNanos;
+                }
+                long sleepNanos = nextTickNanos - nanoClock.getAsLong();
+                if (sleepNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                }
+                advance();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        Timeout<T> timeout;
+        while (null != (timeout = scheduled.poll())) {
+            if (timeout.isCancelled()) {
+                pending.decrementAndGet();
+                continue;
+            }
+            // Already due ones go to the current bucket, which is expired right after.
+            buckets[(int) (Math.max(timeout.deadlineTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    private int expireBucket() {
+        var bucket = buckets[(int) (tick & mask)];
+        int expired = 0;
+        for (int i = bucket.size(); i > 0; i--) {
+            var timeout = bucket.poll();
+            if (timeout.deadlineTick > tick) {
+                // Due in a later revolution.
+                bucket.add(timeout);
+                continue;
+            }
+            pending.decrementAndGet();
+            if (timeout.expire()) {
+                expired++;
+                try {
+                    expiryHandler.accept(timeout.item);
+                } catch (RuntimeException e) {
+                    log.error("Failed to handle the expiry of {}.", timeout.item, e);
+                }
+            }
+        }
+        return expired;
+    }
+
+    public static final class Timeout<T> {
+        private static final int PENDING = 0, CANCELLED = 1, EXPIRED = 2;
+
+        private final T item;
+        private final long deadlineTick;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * @return {@code false} when already expired or cancelled, so exactly one of cancel and expiry wins.
+         */
+        public boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return CANCELLED == state.get();
+        }
+
+        public boolean isExpired() {
+            return EXPIRED == state.get();
+        }
+
+        private boolean expire() {
+            return state.compareAndSet(PENDING, EXPIRED);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.aerotravel.flightticketbooking.services.cache;
+
+import com.aerotravel.flightticketbooking.exception.IdempotencyConflictException;
+import com.aerotravel.flightticketbooking.exception.InvalidIdempotencyKeyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of non-idempotent requests by the client supplied idempotency key,
+ * so that a retried request gets the first response again instead of repeating the action.
+ * <p>
+ * Keys are scoped by user and operation. A retry arriving while the first request is still running waits for it.
+ * Reusing a key for a different request is a conflict. Failures are not remembered, so that a retry may succeed.
+ * Entries expire after a TTL; all share it, so the oldest ones are always at the head of the map.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long IN_PROGRESS_WAIT_SECONDS = 30;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>();
+
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public IdempotencyStore(@Value("${ftb.idempotency.max-size:10000}") int maxSize,
+                            @Value("${ftb.idempotency.ttl:PT1H}") Duration ttl) {
+        if (maxSize < 1) throw new IllegalArgumentException("Idempotency store max size shall be positive.");
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Runs the action once per key; without a key it just runs it.
+     *
+     * @param fingerprint identifies the request, e.g. its body; a retry shall have an equal one.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String owner, String operation, String idempotencyKey, Object fingerprint, Supplier<T> action) {
+        if (null == idempotencyKey || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("Idempotency key shall not be longer than " + MAX_KEY_LENGTH);
+        }
+
+        var key = new Key(owner, operation, idempotencyKey);
+        var entry = new Entry(fingerprint, new CompletableFuture<>(), System.nanoTime() + ttlNanos);
+        Entry existing;
+        synchronized (this) {
+            evictExpired();
+            existing = entries.putIfAbsent(key, entry);
+            if (null == existing && entries.size() > maxSize) {
+                entries.remove(entries.keySet().iterator().next());
+                evictions.increment();
+            }
+        }
+
+        if (null != existing) {
+            return (T) replay(key, existing, fingerprint);
+        }
+
+        try {
+            T response = action.get();
+            entry.response().complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                entries.remove(key, entry);
+            }
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", Duration.ofNanos(ttlNanos).toSeconds());
+        stats.put("replays", replays.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private Object replay(Key key, Entry existing, Object fingerprint) {
+        if (!Objects.equals(existing.fingerprint(), fingerprint)) {
+            conflicts.increment();
+            throw new IdempotencyConflictException("Idempotency key " + key.idempotencyKey()
+                    + " was already used for a different request.");
+        }
+
+        try {
+            var response = existing.response().get(IN_PROGRESS_WAIT_SECONDS, TimeUnit.SECONDS);
+            replays.increment();
+            log.info("Replaying the response of {} for idempotency key {}.", key.operation(), key.idempotencyKey());
+            return response;
+        } catch (TimeoutException e) {
+            conflicts.increment();
+            throw new IdempotencyConflictException("Request with idempotency key " + key.idempotencyKey()
+                    + " is still in progress.");
+        } catch (ExecutionException e) {
+            // The first attempt failed and was forgotten, so it is the same failure for its concurrent retries.
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for idempotency key " + key.idempotencyKey());
+        }
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        var iterator = entries.values().iterator();
+        while (iterator.hasNext() && iterator.next().expiresAt() - now <= 0) {
+            iterator.remove();
+        }
+    }
+
+    private record Key(String owner, String operation, String idempotencyKey) {
+    }
+
+    private record Entry(Object fingerprint, CompletableFuture<Object> response, long expiresAt) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.aerotravel.flightticketbooking.services.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free seat map of a single flight: one bit per seat, seats are numbered from 1.
+ * <p>
+ * Seats are taken and given back by compare-and-set on the 64-seat word holding the bit,
+ * so concurrent selections never block each other and only retry when they race on the same word.
+ */
+public final class SeatMap {
+
+    private final int capacity;
+    private final AtomicLongArray words;
+    private final AtomicInteger available;
+    // Rotates the word where an automatic selection starts, to spread concurrent selections over the map.
+    private final AtomicInteger nextWord = new AtomicInteger();
+
+    public SeatMap(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Seat map capacity shall not be negative.");
+        this.capacity = capacity;
+        this.words = new AtomicLongArray((capacity + 63) >>> 6);
+        this.available = new AtomicInteger(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getAvailable() {
+        return available.get();
+    }
+
+    public boolean contains(int seat) {
+        return seat >= 1 && seat <= capacity;
+    }
+
+    public boolean isTaken(int seat) {
+        checkSeat(seat);
+        return 0 != (words.get(wordOf(seat)) & bitOf(seat));
+    }
+
+    /**
+     * @return {@code false} when the seat is already taken.
+     */
+    public boolean take(int seat) {
+        checkSeat(seat);
+        int word = wordOf(seat);
+        long bit = bitOf(seat);
+        long current;
+        do {
+            current = words.get(word);
+            if (0 != (current & bit)) return false;
+        } while (!words.compareAndSet(word, current, current | bit));
+        available.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return the seat taken, or 0 when the map is full.
+     */
+    public int takeAny() {
+        int wordCount = words.length();
+        if (0 == wordCount) return 0;
+
+        int start = Math.floorMod(nextWord.getAndIncrement(), wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            int word = (start + i) % wordCount;
+            long current = words.get(word);
+            long free;
+            while (0 != (free = ~current & seatsMask(word))) {
+                long bit = Long.lowestOneBit(free);
+                if (words.compareAndSet(word, current, current | bit)) {
+                    available.decrementAndGet();
+                    return (word << 6) + Long.numberOfTrailingZeros(bit) + 1;
+                }
+                current = words.get(word);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return {@code false} when the seat was free already.
+     */
+    public boolean release(int seat) {
+        checkSeat(seat);
+        int word = wordOf(seat);
+        long bit = bitOf(seat);
+        long current;
+        do {
+            current = words.get(word);
+            if (0 == (current & bit)) return false;
+        } while (!words.compareAndSet(word, current, current & ~bit));
+        available.incrementAndGet();
+        return true;
+    }
+
+    public List<Integer> getTakenSeats() {
+        var taken = new ArrayList<Integer>(capacity - available.get());
+        for (int word = 0; word < words.length(); word++) {
+            for (long bits = words.get(word); 0 != bits; bits &= bits - 1) {
+                taken.add((word << 6) + Long.numberOfTrailingZeros(bits) + 1);
+            }
+        }
+        return taken;
+    }
+
+    private long seatsMask(int word) {
+        int seats = capacity - (word << 6);
+        return seats >= 64 ? -1L : (1L << seats) - 1;
+    }
+
+    private void checkSeat(int seat) {
+        if (!contains(seat)) throw new IllegalArgumentException("No seat " + seat + " in a map of " + capacity);
+    }
+
+    private static int wordOf(int seat) {
+        return (seat - 1) >>> 6;
+    }
+
+    private static long bitOf(int seat) {
+        return 1L << ((seat - 1) & 63);
+    }
+}
@@ -0,0 +1,78 @@
+package com.aerotravel.flightticketbooking.services.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * In-memory seat maps by flight id, loaded from the booked seats on first use and dropped whenever the flight
+ * capacity may have changed or the flight is deleted.
+ * <p>
+ * A map takes a bit per seat, yet flights keep coming, so the cache is bounded: past the max size the least recently
+ * used maps, e.g. of departed flights, are dropped down to nine tenths of it in one go. A dropped map is just loaded
+ * again; the seat uniqueness constraint still guards a seat taken by a transaction which has not committed meanwhile.
+ */
+@Component
+public class SeatMapCache {
+
+    private final int maxSize;
+    private final ConcurrentHashMap<Long, Entry> seatMaps = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    public SeatMapCache(@Value("${ftb.seat-map-cache.max-size:10000}") int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("Seat map cache max size shall be positive.");
+        this.maxSize = maxSize;
+    }
+
+    public SeatMap get(long flightId, LongFunction<SeatMap> loader) {
+        var entry = seatMaps.computeIfAbsent(flightId, id -> new Entry(loader.apply(id)));
+        entry.lastUsed = clock.incrementAndGet();
+        if (seatMaps.size() > maxSize) {
+            evictLeastRecentlyUsed();
+        }
+        return entry.seatMap;
+    }
+
+    public SeatMap getIfPresent(long flightId) {
+        var entry = seatMaps.get(flightId);
+        return null == entry ? null : entry.seatMap;
+    }
+
+    public void evict(long flightId) {
+        seatMaps.remove(flightId);
+    }
+
+    public void evictAll() {
+        seatMaps.clear();
+    }
+
+    public int size() {
+        return seatMaps.size();
+    }
+
+    private synchronized void evictLeastRecentlyUsed() {
+        // Another thread may have evicted meanwhile.
+        if (seatMaps.size() <= maxSize) return;
+
+        int excess = seatMaps.size() - (maxSize - maxSize / 10);
+
+        seatMaps.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastUsed))
+                .limit(excess)
+                .toList()
+                .forEach(e -> seatMaps.remove(e.getKey(), e.getValue()));
+    }
+
+    private static final class Entry {
+        private final SeatMap seatMap;
+        private volatile long lastUsed;
+
+        private Entry(SeatMap seatMap) {
+            this.seatMap = seatMap;
+        }
+    }
+}
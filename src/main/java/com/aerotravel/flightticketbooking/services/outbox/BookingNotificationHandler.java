@@ -0,0 +1,23 @@
+package com.aerotravel.flightticketbooking.services.outbox;
+
+import com.aerotravel.flightticketbooking.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends the booking confirmations. There is no mail gateway yet, so they are only logged.
+ */
+@Slf4j
+@Component
+public class BookingNotificationHandler implements OutboxEventHandler {
+
+    @Override
+    public String getEventType() {
+        return OutboxEvent.BOOKING_CONFIRMED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        log.info("Booking confirmation for flight {}: {}", event.getAggregateId(), event.getPayload());
+    }
+}
@@ -0,0 +1,133 @@
+package com.aerotravel.flightticketbooking.services.outbox;
+
+import com.aerotravel.flightticketbooking.model.OutboxEvent;
+import com.aerotravel.flightticketbooking.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Transactional outbox: events are stored along with the change they are about and dispatched after the commit.
+ * <p>
+ * A dispatcher claims a batch of due events for a lease, so a crashed one does not lose them: they are due again
+ * once the lease ends. A failed event is retried with an exponential backoff until it runs out of attempts.
+ */
+@Slf4j
+@Component
+public class Outbox {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration retryBackoff;
+    private final Duration retention;
+
+    @Autowired
+    public Outbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                  @Value("${ftb.outbox.max-attempts:10}") int maxAttempts,
+                  @Value("${ftb.outbox.lease:PT5M}") Duration lease,
+                  @Value("${ftb.outbox.retry-backoff:PT2S}") Duration retryBackoff,
+                  @Value("${ftb.outbox.retention:P7D}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.retryBackoff = retryBackoff;
+        this.retention = retention;
+    }
+
+    /**
+     * Stores an event within the current transaction, which is required: the event shall commit or roll back
+     * together with its change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent publish(String eventType, long aggregateId, Object payload) {
+        var now = Instant.now();
+        return outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(eventType)
+                .aggregateId(aggregateId)
+                .payload(toJson(payload))
+                .status(OutboxEvent.Status.PENDING)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+    }
+
+    @Transactional
+    public List<OutboxEvent> claimDue(int batchSize) {
+        var now = Instant.now();
+        var events = outboxEventRepository.findDueForUpdate(
+                EnumSet.of(OutboxEvent.Status.PENDING, OutboxEvent.Status.CLAIMED), now, PageRequest.of(0, batchSize));
+        events.forEach(e -> {
+            e.setStatus(OutboxEvent.Status.CLAIMED);
+            e.setNextAttemptAt(now.plus(lease));
+        });
+        return events;
+    }
+
+    @Transactional
+    public void markDispatched(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) return;
+        outboxEventRepository.markDispatched(eventIds, OutboxEvent.Status.DISPATCHED, Instant.now());
+    }
+
+    @Transactional
+    public void markFailed(OutboxEvent event, Exception error) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(abbreviate(String.valueOf(error)));
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxEvent.Status.FAILED);
+            log.error("Gave up dispatching outbox event {} of type {} after {} attempts.",
+                    event.getEventId(), event.getEventType(), attempts, error);
+        } else {
+            event.setStatus(OutboxEvent.Status.PENDING);
+            // 2, 4, 8 ... times the backoff, the exponent capped to keep it sane.
+            event.setNextAttemptAt(Instant.now().plus(retryBackoff.multipliedBy(1L << Math.min(attempts, 16))));
+            log.warn("Failed to dispatch outbox event {}, attempt {} of {}: {}",
+                    event.getEventId(), attempts, maxAttempts, error.toString());
+        }
+        outboxEventRepository.save(event);
+    }
+
+    /**
+     * Puts claimed events back without an attempt, to be due at the given time.
+     */
+    @Transactional
+    public void postpone(Collection<Long> eventIds, Instant nextAttemptAt) {
+        if (eventIds.isEmpty()) return;
+        outboxEventRepository.postpone(eventIds, OutboxEvent.Status.PENDING, nextAttemptAt);
+    }
+
+    @Transactional
+    public int purgeDispatched() {
+        return outboxEventRepository.deleteDispatchedBefore(OutboxEvent.Status.DISPATCHED, Instant.now().minus(retention));
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize outbox event payload " + payload, e);
+        }
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,129 @@
+package com.aerotravel.flightticketbooking.services.outbox;
+
+import com.aerotravel.flightticketbooking.model.OutboxEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox in batches. A batch is split by aggregate into as many partitions as the configured parallelism;
+ * partitions are handled in parallel, the events of one aggregate one after another in order.
+ * <p>
+ * When an event fails and is to be retried, the later events of its aggregate wait for the retry: they are put back
+ * to be due along with it, so that they are still handled after it.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private final Outbox outbox;
+    private final Map<String, List<OutboxEventHandler>> handlersByType;
+    private final int batchSize;
+    private final int parallelism;
+    private final ExecutorService executor;
+    // Aggregate id to the retry time of its failed event.
+    private final Map<Long, Instant> blockedAggregates = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OutboxDispatcher(Outbox outbox, List<OutboxEventHandler> handlers,
+                            @Value("${ftb.outbox.batch-size:100}") int batchSize,
+                            @Value("${ftb.outbox.parallelism:4}") int parallelism) {
+        if (batchSize < 1 || parallelism < 1) throw new IllegalArgumentException("Outbox batch size and parallelism shall be positive.");
+        this.outbox = outbox;
+        this.handlersByType = handlers.stream().collect(Collectors.groupingBy(OutboxEventHandler::getEventType));
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            var thread = new Thread(runnable, "outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Keeps draining while full batches come, so a backlog is worked off without waiting for the next poll.
+     */
+    @Scheduled(fixedDelayString = "${ftb.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        var now = Instant.now();
+        blockedAggregates.values().removeIf(retryAt -> !retryAt.isAfter(now));
+        List<OutboxEvent> batch;
+        do {
+            batch = outbox.claimDue(batchSize);
+            if (!batch.isEmpty()) {
+                dispatchBatch(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    @Scheduled(cron = "${ftb.outbox.purge-cron:0 17 * * * *}")
+    public void purge() {
+        int purged = outbox.purgeDispatched();
+        if (purged > 0) {
+            log.info("Purged {} dispatched outbox events.", purged);
+        }
+    }
+
+    private void dispatchBatch(List<OutboxEvent> batch) {
+        var partitions = new ArrayList<List<OutboxEvent>>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        batch.forEach(e -> partitions.get((int) Math.floorMod(e.getAggregateId(), (long) parallelism)).add(e));
+
+        var dispatched = new ConcurrentLinkedQueue<Long>();
+        var postponed = new ConcurrentHashMap<Long, Instant>();
+        var tasks = partitions.stream()
+                .filter(p -> !p.isEmpty())
+                .map(p -> CompletableFuture.runAsync(() -> p.forEach(e -> {
+                    var retryAt = blockedAggregates.get(e.getAggregateId());
+                    if (null != retryAt) {
+                        postponed.put(e.getEventId(), retryAt);
+                    } else if (handle(e)) {
+                        dispatched.add(e.getEventId());
+                    } else if (OutboxEvent.Status.PENDING == e.getStatus()) {
+                        blockedAggregates.put(e.getAggregateId(), e.getNextAttemptAt());
+                    }
+                }), executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(tasks).join();
+
+        outbox.markDispatched(dispatched);
+        postponed.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())))
+                .forEach((retryAt, eventIds) -> outbox.postpone(eventIds, retryAt));
+        log.debug("Dispatched {} of {} outbox events, postponed {}.", dispatched.size(), batch.size(), postponed.size());
+    }
+
+    private boolean handle(OutboxEvent event) {
+        try {
+            for (OutboxEventHandler handler : handlersByType.getOrDefault(event.getEventType(), List.of())) {
+                handler.handle(event);
+            }
+            return true;
+        } catch (Exception e) {
+            outbox.markFailed(event, e);
+            return false;
+        }
+    }
+}
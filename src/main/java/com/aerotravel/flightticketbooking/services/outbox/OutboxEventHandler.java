@@ -0,0 +1,14 @@
+package com.aerotravel.flightticketbooking.services.outbox;
+
+import com.aerotravel.flightticketbooking.model.OutboxEvent;
+
+/**
+ * Reacts to the outbox events of one type, outside the transaction which wrote them.
+ * An event may be delivered more than once, so handling shall be idempotent; throwing makes it retried later.
+ */
+public interface OutboxEventHandler {
+
+    String getEventType();
+
+    void handle(OutboxEvent event) throws Exception;
+}
@@ -0,0 +1,127 @@
+package com.aerotravel.flightticketbooking.services.search;
+
+import com.aerotravel.flightticketbooking.model.projection.AirportSummary;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Typeahead over airport codes, names and cities.
+ * <p>
+ * Every searchable term (the code, the name, the city and each of their further words) is kept in one sorted array,
+ * so the terms starting with a prefix are a contiguous range found by a binary search.
+ * Matches are ranked: exact code, code prefix, name prefix, city prefix and then any other word prefix.
+ */
+public final class AirportSuggestIndex {
+
+    private static final int RANK_CODE_EXACT = 0;
+    private static final int RANK_CODE_PREFIX = 1;
+    private static final int RANK_NAME_PREFIX = 2;
+    private static final int RANK_CITY_PREFIX = 3;
+    private static final int RANK_WORD_PREFIX = 4;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s\\-/,.()]+");
+
+    private final AirportSummary[] airports;
+    private final String[] terms;
+    private final int[] termAirport;
+    private final int[] termRank;
+
+    private AirportSuggestIndex(List<AirportSummary> airports) {
+        this.airports = airports.toArray(new AirportSummary[0]);
+
+        var entries = new ArrayList<Term>();
+        for (int i = 0; i < this.airports.length; i++) {
+            var airport = this.airports[i];
+            addTerm(entries, airport.airportCode(), i, RANK_CODE_PREFIX);
+            addWords(entries, airport.airportName(), i, RANK_NAME_PREFIX);
+            addWords(entries, airport.city(), i, RANK_CITY_PREFIX);
+        }
+        entries.sort(Comparator.comparing(Term::term));
+
+        terms = new String[entries.size()];
+        termAirport = new int[entries.size()];
+        termRank = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            terms[i] = entries.get(i).term();
+            termAirport[i] = entries.get(i).airport();
+            termRank[i] = entries.get(i).rank();
+        }
+    }
+
+    public static AirportSuggestIndex of(Collection<AirportSummary> airports) {
+        return new AirportSuggestIndex(List.copyOf(airports));
+    }
+
+    /**
+     * @return up to {@code limit} airports matching the query, best ranked first.
+     */
+    public List<AirportSummary> suggest(String query, int limit) {
+        var prefix = normalize(query);
+        if (prefix.isEmpty() || limit < 1) return List.of();
+
+        var bestRank = new HashMap<Integer, Integer>();
+        for (int i = lowerBound(prefix); i < terms.length && terms[i].startsWith(prefix); i++) {
+            int rank = termRank[i] == RANK_CODE_PREFIX && terms[i].length() == prefix.length()
+                    ? RANK_CODE_EXACT
+                    : termRank[i];
+            bestRank.merge(termAirport[i], rank, Math::min);
+        }
+
+        return bestRank.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue()
+                        .thenComparing(e -> airports[e.getKey()].airportName(), Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(e -> airports[e.getKey()].airportId()))
+                .limit(limit)
+                .map(e -> airports[e.getKey()])
+                .toList();
+    }
+
+    public int size() {
+        return airports.length;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (terms[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static void addWords(List<Term> entries, String text, int airport, int rank) {
+        var normalized = normalize(text);
+        if (normalized.isEmpty()) return;
+
+        addTerm(entries, normalized, airport, rank);
+        var words = normalized.split(" ");
+        for (int i = 1; i < words.length; i++) {
+            addTerm(entries, words[i], airport, RANK_WORD_PREFIX);
+        }
+    }
+
+    private static void addTerm(List<Term> entries, String term, int airport, int rank) {
+        var normalized = normalize(term);
+        if (!normalized.isEmpty()) {
+            entries.add(new Term(normalized, airport, rank));
+        }
+    }
+
+    static String normalize(String text) {
+        if (null == text) return "";
+
+        var withoutMarks = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(withoutMarks).replaceAll(" ").trim().toUpperCase(Locale.ROOT);
+    }
+
+    private record Term(String term, int airport, int rank) {
+    }
+}
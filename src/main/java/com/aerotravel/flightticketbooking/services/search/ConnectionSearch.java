@@ -0,0 +1,210 @@
+package com.aerotravel.flightticketbooking.services.search;
+
+import com.aerotravel.flightticketbooking.model.dto.ItineraryDto;
+import com.aerotravel.flightticketbooking.model.dto.ItineraryLegDto;
+import com.aerotravel.flightticketbooking.model.projection.FlightLeg;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Multi-leg itinerary search over a time-expanded flight graph.
+ * <p>
+ * Legs are packed into primitive arrays grouped by departure airport and sorted by departure time,
+ * so the next possible connection is found by a binary search rather than by a repository call per hop.
+ * The search itself is a best-first (Dijkstra-like) pass ordered by arrival time. Every airport is settled
+ * at most {@code limit} times, which keeps the work bounded even for dense schedules.
+ */
+public final class ConnectionSearch {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MAX_EXPANSIONS = 50_000;
+    private static final Comparator<Label> EARLIEST_ARRIVAL_FIRST = Comparator
+            .comparingLong(Label::arrival)
+            .thenComparingDouble(Label::charge)
+            .thenComparingInt(Label::legCount);
+
+    private final FlightLeg[] legs;
+    private final long[] departureMinute;
+    private final long[] arrivalMinute;
+    private final int[] fromAirport;
+    private final int[] toAirport;
+    private final Map<Long, Integer> airportIndex;
+    // Departures of the airport i are legsByAirport[offsets[i]] .. legsByAirport[offsets[i + 1] - 1].
+    private final int[] offsets;
+    private final int[] legsByAirport;
+
+    private ConnectionSearch(List<FlightLeg> usable) {
+        int size = usable.size();
+        legs = usable.toArray(new FlightLeg[0]);
+        departureMinute = new long[size];
+        arrivalMinute = new long[size];
+        fromAirport = new int[size];
+        toAirport = new int[size];
+        airportIndex = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            var leg = legs[i];
+            departureMinute[i] = toMinutes(leg.departureDate(), leg.departureTime());
+            arrivalMinute[i] = toMinutes(null == leg.arrivalDate() ? leg.departureDate() : leg.arrivalDate(),
+                    leg.arrivalTime());
+            fromAirport[i] = airportIndex.computeIfAbsent(leg.departureAirportId(), id -> airportIndex.size());
+            toAirport[i] = airportIndex.computeIfAbsent(leg.destinationAirportId(), id -> airportIndex.size());
+        }
+
+        offsets = new int[airportIndex.size() + 1];
+        for (int i = 0; i < size; i++) {
+            offsets[fromAirport[i] + 1]++;
+        }
+        for (int i = 0; i < airportIndex.size(); i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> fromAirport[i])
+                .thenComparingLong(i -> departureMinute[i]));
+        legsByAirport = new int[size];
+        for (int i = 0; i < size; i++) {
+            legsByAirport[i] = order[i];
+        }
+    }
+
+    /**
+     * Packs the legs which can take part in an itinerary, i.e. having both airports and a sane schedule.
+     */
+    public static ConnectionSearch of(Collection<FlightLeg> candidates) {
+        var usable = new ArrayList<FlightLeg>(candidates.size());
+        for (FlightLeg leg : candidates) {
+            if (isUsable(leg)) {
+                usable.add(leg);
+            }
+        }
+        return new ConnectionSearch(usable);
+    }
+
+    /**
+     * @return up to {@code limit} itineraries leaving the origin on the given date, earliest arrival first.
+     */
+    public List<ItineraryDto> search(long originAirportId, long destinationAirportId, LocalDate departureDate,
+                                     int maxLegs, int limit, int minConnectionMinutes) {
+        Integer origin = airportIndex.get(originAirportId);
+        Integer destination = airportIndex.get(destinationAirportId);
+        if (null == origin || null == destination || origin.equals(destination)) {
+            return List.of();
+        }
+
+        var queue = new PriorityQueue<>(EARLIEST_ARRIVAL_FIRST);
+        for (int i = offsets[origin]; i < offsets[origin + 1]; i++) {
+            int leg = legsByAirport[i];
+            if (departureDate.equals(legs[leg].departureDate())) {
+                queue.add(new Label(leg, null, 1, arrivalMinute[leg], legs[leg].flightCharge()));
+            }
+        }
+
+        var settled = new int[airportIndex.size()];
+        var result = new ArrayList<ItineraryDto>(limit);
+        int expansions = 0;
+        while (!queue.isEmpty() && result.size() < limit && expansions < MAX_EXPANSIONS) {
+            var label = queue.poll();
+            int airport = toAirport[label.leg()];
+            if (airport == destination) {
+                result.add(toItinerary(label));
+                continue;
+            }
+            if (label.legCount() >= maxLegs || settled[airport]++ >= limit) {
+                continue;
+            }
+
+            expansions++;
+            for (int i = firstDepartureAtOrAfter(airport, label.arrival() + minConnectionMinutes);
+                 i < offsets[airport + 1]; i++) {
+                int next = legsByAirport[i];
+                if (!visits(label, toAirport[next])) {
+                    queue.add(new Label(next, label, label.legCount() + 1, arrivalMinute[next],
+                            label.charge() + legs[next].flightCharge()));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private int firstDepartureAtOrAfter(int airport, long minute) {
+        int low = offsets[airport];
+        int high = offsets[airport + 1];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departureMinute[legsByAirport[middle]] < minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private boolean visits(Label label, int airport) {
+        for (var current = label; null != current; current = current.previous()) {
+            if (fromAirport[current.leg()] == airport || toAirport[current.leg()] == airport) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ItineraryDto toItinerary(Label last) {
+        var path = new ArrayDeque<Label>();
+        for (var current = last; null != current; current = current.previous()) {
+            path.addFirst(current);
+        }
+
+        var itineraryLegs = new ArrayList<ItineraryLegDto>(path.size());
+        for (Label label : path) {
+            var leg = legs[label.leg()];
+            itineraryLegs.add(ItineraryLegDto.builder()
+                    .flightId(leg.flightId())
+                    .flightNumber(leg.flightNumber())
+                    .departureAirportCode(leg.departureAirportCode())
+                    .destinationAirportCode(leg.destinationAirportCode())
+                    .departureDate(leg.departureDate())
+                    .departureTime(leg.departureTime())
+                    .arrivalDate(leg.arrivalDate())
+                    .arrivalTime(leg.arrivalTime())
+                    .flightCharge(leg.flightCharge())
+                    .build());
+        }
+
+        return ItineraryDto.builder()
+                .legs(itineraryLegs)
+                .connections(itineraryLegs.size() - 1)
+                .durationMinutes(last.arrival() - departureMinute[path.getFirst().leg()])
+                .totalCharge(last.charge())
+                .build();
+    }
+
+    private static boolean isUsable(FlightLeg leg) {
+        if (null == leg.departureAirportId() || null == leg.destinationAirportId()
+                || leg.departureAirportId().equals(leg.destinationAirportId())
+                || null == leg.departureDate()) {
+            return false;
+        }
+        try {
+            var arrivalDate = null == leg.arrivalDate() ? leg.departureDate() : leg.arrivalDate();
+            return toMinutes(arrivalDate, leg.arrivalTime()) >= toMinutes(leg.departureDate(), leg.departureTime());
+        } catch (DateTimeParseException | NullPointerException e) {
+            return false;
+        }
+    }
+
+    private static long toMinutes(LocalDate date, String time) {
+        return date.toEpochDay() * MINUTES_PER_DAY + LocalTime.parse(time.trim()).toSecondOfDay() / 60;
+    }
+
+    private record Label(int leg, Label previous, int legCount, long arrival, double charge) {
+    }
+}
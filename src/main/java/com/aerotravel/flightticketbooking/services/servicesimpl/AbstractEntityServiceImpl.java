@@ -1,23 +1,74 @@
 package com.aerotravel.flightticketbooking.services.servicesimpl;
 
+import com.aerotravel.flightticketbooking.model.dto.CursorPage;
+import com.aerotravel.flightticketbooking.model.dto.IdedEntity;
+import com.aerotravel.flightticketbooking.repository.OwnedEntityRepository;
 import com.aerotravel.flightticketbooking.services.EntityService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.core.GenericTypeResolver;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 abstract class AbstractEntityServiceImpl<E> implements EntityService<E> {
 
     private static final int PAGE_SIZE = 10;
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @SuppressWarnings("unchecked")
+    private final Class<E> entityClass =
+            (Class<E>) GenericTypeResolver.resolveTypeArgument(getClass(), AbstractEntityServiceImpl.class);
 
     protected abstract JpaRepository<E, Long> getRepository();
 
     protected abstract String[] getSortByProperties();
 
+    /**
+     * Restricts the entities {@link #getCursorPage(String, int)} and {@link #forEach(Consumer)} go through,
+     * e.g. to the current user's ones.
+     *
+     * @return {@code null} for no restriction.
+     */
+    protected Predicate getCursorRestriction(CriteriaBuilder cb, Root<E> root) {
+        return null;
+    }
+
+    /**
+     * Scopes {@link #getById(Long)}, {@link #getOptionallyById(Long)}, {@link #getAllById(List)} and
+     * {@link #deleteById(Long)} to the entities of an owner, e.g. the current user, in SQL.
+     * The repository shall then be an {@link OwnedEntityRepository}.
+     *
+     * @return {@code null} for no scoping.
+     */
+    protected Long getOwnerScope() {
+        return null;
+    }
+
+    private OwnedEntityRepository<E> getOwnedRepository() {
+        if (getRepository() instanceof OwnedEntityRepository<E> ownedRepository) {
+            return ownedRepository;
+        }
+        throw new IllegalStateException(entityClass.getSimpleName() + " repository cannot be scoped by owner.");
+    }
+
     @Override
     public Page<E> getAllPaged(int pageNum) {
         return getRepository().findAll(PageRequest.of(pageNum, PAGE_SIZE, Sort.by(getSortByProperties())));
@@ -33,25 +84,147 @@ abstract class AbstractEntityServiceImpl<E> implements EntityService<E> {
         return getRepository().findAll();
     }
 
+    /**
+     * Goes through the entities in keyset chunks by id rather than a repository stream: MySQL/MariaDB drivers
+     * read a whole result set into memory unless cursor fetch is set up on the connection.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(Consumer<E> consumer) {
+        var idProperty = getIdProperty();
+        var cb = entityManager.getCriteriaBuilder();
+        long afterId = 0;
+        List<E> chunk;
+        do {
+            var query = cb.createQuery(entityClass);
+            var root = query.from(entityClass);
+            Path<Long> idPath = root.get(idProperty);
+            var predicates = new ArrayList<Predicate>();
+            var restriction = getCursorRestriction(cb, root);
+            if (null != restriction) {
+                predicates.add(restriction);
+            }
+            predicates.add(cb.greaterThan(idPath, afterId));
+            query.select(root).where(predicates.toArray(new Predicate[0])).orderBy(cb.asc(idPath));
+
+            chunk = entityManager.createQuery(query).setMaxResults(STREAM_CHUNK_SIZE).getResultList();
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                afterId = ((Number) new DirectFieldAccessor(chunk.get(chunk.size() - 1))
+                        .getPropertyValue(idProperty)).longValue();
+            }
+            // Keep the persistence context from growing with the processed entities and their associations.
+            entityManager.clear();
+        } while (chunk.size() == STREAM_CHUNK_SIZE);
+    }
+
+    /**
+     * Goes through lean DTOs in keyset chunks by id, for the DTOs listing the ids of a collection:
+     * those are filled in by one query per chunk rather than one per entity.
+     *
+     * @param findChunk finds the DTOs with an id greater than the given one, ordered by id, up to the page size.
+     */
+    protected static <D extends IdedEntity> void forEachInChunks(BiFunction<Long, Pageable, List<D>> findChunk,
+                                                                 Consumer<D> consumer) {
+        long afterId = 0;
+        List<D> chunk;
+        do {
+            chunk = findChunk.apply(afterId, PageRequest.of(0, STREAM_CHUNK_SIZE));
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == STREAM_CHUNK_SIZE);
+    }
+
+    /**
+     * Keyset pagination ordered by the first sort property and then by id.
+     * A page costs one index range scan no matter how deep it is and no count query is issued.
+     * Null sort keys are expected to come first, the way MySQL/MariaDB order them.
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public CursorPage<E> getCursorPage(String cursor, int size) {
+        if (size < 1) throw new IllegalArgumentException("Page size shall be positive.");
+
+        var sortProperty = getSortByProperties()[0];
+        var idProperty = getIdProperty();
+
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(entityClass);
+        var root = query.from(entityClass);
+        Path sortPath = root.get(sortProperty);
+        Path<Long> idPath = root.get(idProperty);
+
+        var predicates = new ArrayList<Predicate>();
+        var restriction = getCursorRestriction(cb, root);
+        if (null != restriction) {
+            predicates.add(restriction);
+        }
+        if (null != cursor && !cursor.isBlank()) {
+            var position = KeysetCursor.decode(cursor, sortPath.getJavaType());
+            var idAfter = cb.greaterThan(idPath, position.id());
+            predicates.add(null == position.sortValue()
+                    ? cb.or(cb.and(cb.isNull(sortPath), idAfter), cb.isNotNull(sortPath))
+                    : cb.or(cb.greaterThan(sortPath, (Comparable) position.sortValue()),
+                    cb.and(cb.equal(sortPath, position.sortValue()), idAfter)));
+        }
+        query.select(root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(sortPath), cb.asc(idPath));
+
+        // One extra row tells whether there is a next page.
+        var rows = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+
+        var content = rows.subList(0, size);
+        var last = new DirectFieldAccessor(content.get(size - 1));
+        var nextCursor = new KeysetCursor((Comparable<?>) last.getPropertyValue(sortProperty),
+                ((Number) last.getPropertyValue(idProperty)).longValue());
+        return new CursorPage<>(new ArrayList<>(content), nextCursor.encode());
+    }
+
+    private String getIdProperty() {
+        return entityManager.getMetamodel().entity(entityClass).getSingularAttributes()
+                .stream()
+                .filter(SingularAttribute::isId)
+                .map(SingularAttribute::getName)
+                .findFirst()
+                .orElseThrow();
+    }
+
     @Override
     public E getById(Long entityId) {
         if (null == entityId) throw new IllegalArgumentException("Entity ID shall be null.");
 
-        return getRepository().findById(entityId).orElseThrow(() -> buildEntityNotFoundException(entityId));
+        return findById(entityId).orElseThrow(() -> buildEntityNotFoundException(entityId));
     }
 
     @Override
     public Optional<E> getOptionallyById(Long entityId) {
         if (null == entityId) throw new IllegalArgumentException("Entity ID shall be null.");
 
-        return getRepository().findById(entityId);
+        return findById(entityId);
+    }
+
+    private Optional<E> findById(long entityId) {
+        var ownerId = getOwnerScope();
+        return null == ownerId
+                ? getRepository().findById(entityId)
+                : getOwnedRepository().findByIdAndOwnerId(entityId, ownerId);
     }
 
     @Override
     public List<E> getAllById(List<Long> entityIds) {
         if (null == entityIds) throw new IllegalArgumentException("List of Entity IDs shall be null.");
 
-        return getRepository().findAllById(entityIds);
+        var ownerId = getOwnerScope();
+        if (null == ownerId) {
+            return getRepository().findAllById(entityIds);
+        }
+        return entityIds.isEmpty() ? List.of() : getOwnedRepository().findAllByIdInAndOwnerId(entityIds, ownerId);
     }
 
     @Override
@@ -61,8 +234,14 @@ abstract class AbstractEntityServiceImpl<E> implements EntityService<E> {
     }
 
     @Override
+    @Transactional
     public void deleteById(Long entity) {
-        getRepository().deleteById(entity);
+        var ownerId = getOwnerScope();
+        if (null == ownerId) {
+            getRepository().deleteById(entity);
+        } else if (0 == getOwnedRepository().deleteByIdAndOwnerId(entity, ownerId)) {
+            throw buildEntityNotFoundException(entity);
+        }
     }
 
 }
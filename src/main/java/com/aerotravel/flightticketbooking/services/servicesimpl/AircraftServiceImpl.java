@@ -1,13 +1,16 @@
 package com.aerotravel.flightticketbooking.services.servicesimpl;
 
-import com.aerotravel.flightticketbooking.exception.EntityNotFoundException;
 import com.aerotravel.flightticketbooking.model.Aircraft;
 import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.model.dto.AircraftDto;
 import com.aerotravel.flightticketbooking.repository.AircraftRepository;
 import com.aerotravel.flightticketbooking.services.AircraftService;
 import com.aerotravel.flightticketbooking.services.UserService;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -16,12 +19,16 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.util.Optional;
 
 import java.util.List;
 import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -30,12 +37,15 @@ public class AircraftServiceImpl extends AbstractEntityServiceImpl<Aircraft> imp
     private static final int PAGE_SIZE = 10;
     private final AircraftRepository aircraftRepository;
     private final UserService userService;
+    private final SeatInventory seatInventory;
     private final String[] sortBy = new String[]{"model"};
 
     @Autowired
-    public AircraftServiceImpl(AircraftRepository aircraftRepository, UserService userService) {
+    public AircraftServiceImpl(AircraftRepository aircraftRepository, UserService userService,
+                               SeatInventory seatInventory) {
         this.aircraftRepository = aircraftRepository;
         this.userService = userService;
+        this.seatInventory = seatInventory;
     }
 
     @Override
@@ -55,6 +65,12 @@ public class AircraftServiceImpl extends AbstractEntityServiceImpl<Aircraft> imp
         return saveAircraftForCurrentUser(aircraft);
     }
 
+    @Override
+    protected Predicate getCursorRestriction(CriteriaBuilder cb, Root<Aircraft> root) {
+        User currentUser = userService.getCurrentUser();
+        return cb.equal(root.get("owner"), currentUser);
+    }
+
     @Override
     protected String[] getSortByProperties() {
         return sortBy;
@@ -107,43 +123,48 @@ public class AircraftServiceImpl extends AbstractEntityServiceImpl<Aircraft> imp
     }
 
     @Override
+    @Transactional
     public Aircraft saveAircraftForCurrentUser(Aircraft aircraft) {
         User currentUser = userService.getCurrentUser();
         aircraft.setOwner(currentUser);
-        return aircraftRepository.save(aircraft);
+        boolean isNew = 0 == aircraft.getAircraftId();
+        Integer previousCapacity = isNew ? null : aircraftRepository.findNumberOfSeatsById(aircraft.getAircraftId());
+        var saved = aircraftRepository.save(aircraft);
+        if (!isNew) {
+            // The number of seats may have been changed.
+            seatInventory.changeAircraftCapacity(saved.getAircraftId(), previousCapacity, saved.getNumberOfSeats());
+        }
+        return saved;
     }
 
-    // SECURITY OVERRIDES - Ensure user ownership validation
-
     @Override
-    public Aircraft getById(Long entityId) {
-        if (null == entityId) throw new IllegalArgumentException("Entity ID shall not be null.");
-        Aircraft entity = aircraftRepository.findById(entityId)
-                .orElseThrow(() -> new EntityNotFoundException("Aircraft not found with id: " + entityId));
-        User currentUser = userService.getCurrentUser();
-        if (!entity.getOwner().getId().equals(currentUser.getId())) {
-            throw new EntityNotFoundException("Aircraft not found with id: " + entityId);
-        }
-        return entity;
+    @Transactional(readOnly = true)
+    public void forEachCurrentUserAircraftDto(Consumer<AircraftDto> consumer) {
+        Long ownerId = userService.getCurrentUser().getId();
+        forEachInChunks((afterId, chunk) ->
+                withFlightIds(aircraftRepository.findDtosByOwnerIdAfter(ownerId, afterId, chunk)), consumer);
     }
 
+    private List<AircraftDto> withFlightIds(List<AircraftDto> aircraft) {
+        if (aircraft.isEmpty()) return aircraft;
+
+        // One query for all the aircraft found instead of initializing every flights collection.
+        var byId = aircraft.stream().collect(Collectors.toMap(AircraftDto::getAircraftId, Function.identity()));
+        aircraftRepository.findFlightRefsByAircraftIds(byId.keySet())
+                .forEach(ref -> byId.get(ref.aircraftId()).getFlightIds().add(ref.flightId()));
+        return aircraft;
+    }
+
+    // SECURITY OVERRIDES - Ensure user ownership validation
+
     @Override
-    public Optional<Aircraft> getOptionallyById(Long entityId) {
-        if (null == entityId) return Optional.empty();
-        Optional<Aircraft> entity = aircraftRepository.findById(entityId);
-        if (entity.isPresent()) {
-            User currentUser = userService.getCurrentUser();
-            if (!entity.get().getOwner().getId().equals(currentUser.getId())) {
-                return Optional.empty();
-            }
-        }
-        return entity;
+    protected Long getOwnerScope() {
+        return userService.getCurrentUser().getId();
     }
 
     @Override
-    public void deleteById(Long entityId) {
-        getById(entityId); // This validates ownership
-        aircraftRepository.deleteById(entityId);
+    public Optional<Aircraft> getOptionallyById(Long entityId) {
+        return null == entityId ? Optional.empty() : super.getOptionallyById(entityId);
     }
 
     @Override
@@ -3,9 +3,15 @@ package com.aerotravel.flightticketbooking.services.servicesimpl;
 import com.aerotravel.flightticketbooking.exception.EntityNotFoundException;
 import com.aerotravel.flightticketbooking.model.Airport;
 import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.model.dto.AirportSuggestionDto;
 import com.aerotravel.flightticketbooking.repository.AirportRepository;
 import com.aerotravel.flightticketbooking.services.AirportService;
 import com.aerotravel.flightticketbooking.services.UserService;
+import com.aerotravel.flightticketbooking.services.cache.AirportDirectory;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -13,6 +19,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.util.List;
@@ -25,12 +32,17 @@ public class AirportServiceImpl extends AbstractEntityServiceImpl<Airport> imple
     private static final int PAGE_SIZE = 10;
     private final AirportRepository airportRepository;
     private final UserService userService;
+    private final FlightSearchCache flightSearchCache;
+    private final AirportDirectory airportDirectory;
     private final String[] sortBy = new String[]{"airportName"};
 
     @Autowired
-    public AirportServiceImpl(AirportRepository airportRepository, UserService userService) {
+    public AirportServiceImpl(AirportRepository airportRepository, UserService userService,
+                              FlightSearchCache flightSearchCache, AirportDirectory airportDirectory) {
         this.airportRepository = airportRepository;
         this.userService = userService;
+        this.flightSearchCache = flightSearchCache;
+        this.airportDirectory = airportDirectory;
     }
 
     @Override
@@ -50,6 +62,12 @@ public class AirportServiceImpl extends AbstractEntityServiceImpl<Airport> imple
         return saveAirportForCurrentUser(airport);
     }
 
+    @Override
+    protected Predicate getCursorRestriction(CriteriaBuilder cb, Root<Airport> root) {
+        User currentUser = userService.getCurrentUser();
+        return cb.equal(root.get("owner"), currentUser);
+    }
+
     @Override
     protected String[] getSortByProperties() {
         return sortBy;
@@ -73,52 +91,68 @@ public class AirportServiceImpl extends AbstractEntityServiceImpl<Airport> imple
     public Airport getCurrentUserAirportByCode(String airportCode) {
         if (null == airportCode) throw new IllegalArgumentException("Airport code shall not be null.");
 
+        String username = userService.getCurrentUsername();
+        // A reference is enough to search by or to link a flight to. The directory may lag behind a change made
+        // around the service, so the id is checked by its primary key first; a stale one drops the owner's airports.
+        var airportId = airportDirectory.findAirportId(username, airportCode);
+        if (airportId.isPresent()) {
+            if (airportRepository.existsByAirportIdAndAirportCode(airportId.get(), airportCode.trim())) {
+                return airportRepository.getReferenceById(airportId.get());
+            }
+            airportDirectory.evictOwner(username);
+        }
+
+        // Not in the directory - either unknown or stored around the service, e.g. by the data generator.
         User currentUser = userService.getCurrentUser();
-        return airportRepository.findByOwnerAndAirportCode(currentUser, airportCode)
+        var airport = airportRepository.findByOwnerAndAirportCode(currentUser, airportCode)
                 .orElseThrow(() -> new EntityNotFoundException("Could not find airport by code=" + airportCode + " for current user"));
+        airportDirectory.evictOwner(username);
+        return airport;
+    }
+
+    @Override
+    public List<AirportSuggestionDto> suggestCurrentUserAirports(String query, int limit) {
+        return airportDirectory.suggest(userService.getCurrentUsername(), query, limit)
+                .stream()
+                .map(airport -> AirportSuggestionDto.builder()
+                        .airportId(airport.airportId())
+                        .airportCode(airport.airportCode())
+                        .airportName(airport.airportName())
+                        .city(airport.city())
+                        .country(airport.country())
+                        .build())
+                .toList();
     }
 
     @Override
     public Airport saveAirportForCurrentUser(Airport airport) {
         User currentUser = userService.getCurrentUser();
         airport.setOwner(currentUser);
-        return airportRepository.save(airport);
+        var saved = airportRepository.save(airport);
+        // Cached search results carry the airport codes.
+        flightSearchCache.invalidateOwner(currentUser.getId());
+        airportDirectory.evictOwner(currentUser.getUsername());
+        return saved;
     }
 
     // User-specific operations that enforce ownership validation
     @Override
-    public Airport getById(Long entityId) {
-        if (null == entityId) throw new IllegalArgumentException("Entity ID shall not be null.");
-        Airport entity = airportRepository.findById(entityId)
-                .orElseThrow(() -> new EntityNotFoundException("Airport not found with id: " + entityId));
-        
-        // For user-specific operations, validate ownership
-        User currentUser = userService.getCurrentUser();
-        if (!entity.getOwner().getId().equals(currentUser.getId())) {
-            throw new EntityNotFoundException("Airport not found with id: " + entityId);
-        }
-        return entity;
+    protected Long getOwnerScope() {
+        return userService.getCurrentUser().getId();
     }
 
     @Override
     public Optional<Airport> getOptionallyById(Long entityId) {
-        if (null == entityId) return Optional.empty();
-        Optional<Airport> entity = airportRepository.findById(entityId);
-        
-        if (entity.isPresent()) {
-            // For user-specific operations, validate ownership
-            User currentUser = userService.getCurrentUser();
-            if (!entity.get().getOwner().getId().equals(currentUser.getId())) {
-                return Optional.empty();
-            }
-        }
-        return entity;
+        return null == entityId ? Optional.empty() : super.getOptionallyById(entityId);
     }
 
     @Override
+    @Transactional
     public void deleteById(Long entityId) {
-        getById(entityId); // This validates ownership
-        airportRepository.deleteById(entityId);
+        super.deleteById(entityId); // Scoped to the current user, so they are the owner
+        User currentUser = userService.getCurrentUser();
+        flightSearchCache.invalidateOwner(currentUser.getId());
+        airportDirectory.evictOwner(currentUser.getUsername());
     }
 
     @Override
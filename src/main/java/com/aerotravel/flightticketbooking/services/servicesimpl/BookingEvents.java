@@ -0,0 +1,58 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.model.Flight;
+import com.aerotravel.flightticketbooking.model.OutboxEvent;
+import com.aerotravel.flightticketbooking.model.Passenger;
+import com.aerotravel.flightticketbooking.model.projection.CancelledBooking;
+import com.aerotravel.flightticketbooking.services.outbox.Outbox;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Booking events in the outbox, one per flight. Confirmations, analytics and the downstream sync
+ * pick them up after the commit.
+ */
+@Component
+class BookingEvents {
+
+    private final Outbox outbox;
+
+    BookingEvents(Outbox outbox) {
+        this.outbox = outbox;
+    }
+
+    public void publish(String eventType, Flight flight, List<Passenger> passengers) {
+        publish(eventType, flight.getFlightId(), flight.getFlightNumber(), passengers.stream()
+                .map(p -> passenger(p.getPassengerId(), p.getPassportNumber(), p.getSeatNumber()))
+                .toList());
+    }
+
+    public void publishCancelled(Collection<CancelledBooking> bookings) {
+        bookings.stream()
+                .filter(b -> null != b.flightId())
+                .collect(Collectors.groupingBy(CancelledBooking::flightId, LinkedHashMap::new, Collectors.toList()))
+                .forEach((flightId, cancelled) -> publish(OutboxEvent.BOOKING_CANCELLED, flightId,
+                        cancelled.get(0).flightNumber(), cancelled.stream()
+                                .map(b -> passenger(b.passengerId(), b.passportNumber(), b.seatNumber()))
+                                .toList()));
+    }
+
+    private void publish(String eventType, long flightId, String flightNumber, List<Map<String, Object>> passengers) {
+        var payload = new LinkedHashMap<String, Object>();
+        payload.put("flightId", flightId);
+        payload.put("flightNumber", flightNumber);
+        payload.put("passengers", passengers);
+        outbox.publish(eventType, flightId, payload);
+    }
+
+    private static Map<String, Object> passenger(long passengerId, String passportNumber, Integer seatNumber) {
+        return Map.of("passengerId", passengerId,
+                "passportNumber", passportNumber,
+                "seatNumber", null == seatNumber ? "" : seatNumber);
+    }
+}
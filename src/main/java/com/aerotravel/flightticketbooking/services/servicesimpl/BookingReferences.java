@@ -0,0 +1,44 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import java.security.SecureRandom;
+import java.util.function.Predicate;
+
+/**
+ * Short booking references (PNRs), e.g. {@code K7RX2P}. The alphabet leaves out the look-alikes 0/O and 1/I,
+ * so a reference read out over the phone is still found. Uniqueness is enforced by the passenger index.
+ */
+final class BookingReferences {
+
+    static final int LENGTH = 6;
+    private static final char[] ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private BookingReferences() {
+    }
+
+    /**
+     * A reference is practically never taken already; the unique index rejects the rare racing duplicate.
+     */
+    static String next(Predicate<String> taken) {
+        String reference;
+        do {
+            reference = next();
+        } while (taken.test(reference));
+        return reference;
+    }
+
+    static String next() {
+        var reference = new char[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            reference[i] = ALPHABET[RANDOM.nextInt(ALPHABET.length)];
+        }
+        return new String(reference);
+    }
+
+    /**
+     * References are case-insensitive for the travellers, stored upper case.
+     */
+    static String normalize(String reference) {
+        return null == reference ? null : reference.trim().toUpperCase();
+    }
+}
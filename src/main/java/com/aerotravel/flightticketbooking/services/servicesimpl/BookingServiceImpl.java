@@ -0,0 +1,282 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.exception.EntityNotFoundException;
+import com.aerotravel.flightticketbooking.model.Flight;
+import com.aerotravel.flightticketbooking.model.OutboxEvent;
+import com.aerotravel.flightticketbooking.model.Passenger;
+import com.aerotravel.flightticketbooking.model.dto.SeatHoldDto;
+import com.aerotravel.flightticketbooking.model.dto.SeatMapDto;
+import com.aerotravel.flightticketbooking.model.projection.CancelledBooking;
+import com.aerotravel.flightticketbooking.repository.PassengerBatchRepository;
+import com.aerotravel.flightticketbooking.repository.PassengerRepository;
+import com.aerotravel.flightticketbooking.services.BookingResult;
+import com.aerotravel.flightticketbooking.services.BookingService;
+import com.aerotravel.flightticketbooking.services.FlightService;
+import com.aerotravel.flightticketbooking.services.PassengerService;
+import com.aerotravel.flightticketbooking.services.UserService;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import com.aerotravel.flightticketbooking.services.servicesimpl.SeatHoldRegistry.SeatHold;
+import com.aerotravel.flightticketbooking.transaction.TransactionHooks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class BookingServiceImpl implements BookingService {
+
+    private final FlightService flightService;
+    private final PassengerService passengerService;
+    private final UserService userService;
+    private final SeatInventory seatInventory;
+    private final SeatHoldRegistry seatHoldRegistry;
+    private final FlightWaitlist flightWaitlist;
+    private final PassengerRepository passengerRepository;
+    private final PassengerBatchRepository passengerBatchRepository;
+    private final FlightSearchCache flightSearchCache;
+    private final BookingEvents bookingEvents;
+    private final BulkCancellation bulkCancellation;
+
+    @Autowired
+    public BookingServiceImpl(FlightService flightService, PassengerService passengerService, UserService userService,
+                              SeatInventory seatInventory, SeatHoldRegistry seatHoldRegistry, FlightWaitlist flightWaitlist,
+                              PassengerRepository passengerRepository, PassengerBatchRepository passengerBatchRepository,
+                              FlightSearchCache flightSearchCache, BookingEvents bookingEvents,
+                              BulkCancellation bulkCancellation) {
+        this.flightService = flightService;
+        this.passengerService = passengerService;
+        this.userService = userService;
+        this.seatInventory = seatInventory;
+        this.seatHoldRegistry = seatHoldRegistry;
+        this.flightWaitlist = flightWaitlist;
+        this.passengerRepository = passengerRepository;
+        this.passengerBatchRepository = passengerBatchRepository;
+        this.flightSearchCache = flightSearchCache;
+        this.bookingEvents = bookingEvents;
+        this.bulkCancellation = bulkCancellation;
+    }
+
+    @Override
+    @Transactional
+    public BookingResult bookFlight(long flightId, Passenger passenger) {
+        var flight = flightService.getById(flightId);
+        log.info("Found the flight, it is {} !", flight.getFlightNumber());
+        rejectClone(flight, passenger);
+
+        // The ones waiting go first, onto any seats left they were not promoted to yet. So the flight has either
+        // no waitlist or no seats left by now.
+        flightWaitlist.promote(flight, List.of());
+        // Checked under the flight row lock, so a full flight waitlists rather than fails. A requested seat is
+        // either free or taken, there is nothing to wait for.
+        if (null == passenger.getSeatNumber() && !seatInventory.hasSeatsLeft(flight, 1)) {
+            return flightWaitlist.enqueue(flight, passenger);
+        }
+        return BookingResult.booked(book(flight, passenger));
+    }
+
+    @Override
+    @Transactional
+    public List<Passenger> bookGroup(long flightId, List<Passenger> party) {
+        var flight = flightService.getById(flightId);
+        log.info("Booking a party of {} for the flight {}.", party.size(), flight.getFlightNumber());
+
+        var passportNumbers = new HashSet<String>();
+        for (Passenger passenger : party) {
+            if (!passportNumbers.add(passenger.getPassportNumber())) {
+                throw new DataIntegrityViolationException("Passport " + passenger.getPassportNumber() + " is given twice in the party.");
+            }
+        }
+        // Waitlisted ones as well, their promotion would clash with the booking.
+        var alreadyBooked = new ArrayList<>(passengerRepository.findPassportNumbersOnFlight(flightId, passportNumbers));
+        alreadyBooked.addAll(flightWaitlist.findWaitlisted(flightId, passportNumbers));
+        if (!alreadyBooked.isEmpty()) {
+            throw new DataIntegrityViolationException("Unfortunately human clones are not allowed on flight "
+                    + flight.getFlightNumber() + ": " + alreadyBooked);
+        }
+
+        // Requested seats go first, so that the automatic picks cannot take them.
+        party.stream().filter(p -> null != p.getSeatNumber())
+                .forEach(p -> p.setSeatNumber(seatInventory.takeSeat(flight, p.getSeatNumber())));
+        party.stream().filter(p -> null == p.getSeatNumber())
+                .forEach(p -> p.setSeatNumber(seatInventory.takeSeat(flight, null)));
+        seatInventory.reserve(flight, party.size());
+
+        party.forEach(p -> {
+            p.setFlight(flight);
+            p.setOwner(flight.getOwner());
+        });
+        assignBookingReferences(party);
+        passengerBatchRepository.insertAll(party);
+
+        var saved = passengerRepository.findAllOnFlightByPassportNumbers(flightId, passportNumbers);
+        bookingEvents.publish(OutboxEvent.BOOKING_CONFIRMED, flight, saved);
+        flightSearchCache.invalidateFlight(flightId);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public void cancelBooking(long passengerId) {
+        var passenger = passengerService.getById(passengerId);
+        // The seat is given back along with the passenger delete.
+        passengerService.deleteById(passengerId);
+        var flight = passenger.getFlight();
+        if (null == flight) return;
+
+        bookingEvents.publish(OutboxEvent.BOOKING_CANCELLED, flight, List.of(passenger));
+        flightWaitlist.promote(flight, freedSeats(List.of(passenger), Passenger::getSeatNumber));
+    }
+
+    @Override
+    @Transactional
+    public int cancelBookings(Collection<Long> passengerIds) {
+        var cancelled = bulkCancellation.cancelByIds(passengerIds, userService.getCurrentUser().getId());
+        cancelled.stream()
+                .filter(b -> null != b.flightId())
+                .collect(Collectors.groupingBy(CancelledBooking::flightId, LinkedHashMap::new, Collectors.toList()))
+                .forEach((flightId, bookings) ->
+                        flightWaitlist.promote(flightService.getById(flightId), freedSeats(bookings, CancelledBooking::seatNumber)));
+        return cancelled.size();
+    }
+
+    @Override
+    @Transactional
+    public int cancelAllOnFlight(long flightId) {
+        var flight = flightService.getById(flightId);
+        // The waitlist goes as well, there is nothing left to wait for.
+        return bulkCancellation.cancelOnFlights(List.of(flightId), flight.getOwner().getId()).size();
+    }
+
+    @Override
+    public Passenger getBooking(String bookingReference) {
+        var reference = BookingReferences.normalize(bookingReference);
+        return passengerRepository.findBookingByReference(reference, userService.getCurrentUser().getId())
+                .orElseThrow(() -> new EntityNotFoundException("No booking was found by the reference " + reference));
+    }
+
+    @Override
+    public Passenger getBooking(long flightId, long passengerId) {
+        return passengerRepository.findBookingOnFlight(flightId, passengerId, userService.getCurrentUser().getId())
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("No passenger %s assigned to the flight %s was found", passengerId, flightId)));
+    }
+
+    @Override
+    public SeatMapDto getSeatMap(long flightId) {
+        var flight = flightService.getById(flightId);
+        var seatMap = seatInventory.getSeatMap(flight);
+        if (null == seatMap) {
+            throw new EntityNotFoundException("Flight " + flight.getFlightNumber() + " has no seat map, its aircraft capacity is unknown.");
+        }
+
+        return SeatMapDto.builder()
+                .flightId(flightId)
+                .flightNumber(flight.getFlightNumber())
+                .capacity(seatMap.getCapacity())
+                .available(seatMap.getAvailable())
+                .takenSeats(seatMap.getTakenSeats())
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public SeatHoldDto holdSeat(long flightId, Integer seatNumber, Duration duration) {
+        var flight = flightService.getById(flightId);
+        var seat = seatInventory.takeSeat(flight, seatNumber);
+        seatInventory.reserve(flight, 1);
+        seatInventory.markHeld(flightId, seat);
+
+        var hold = new SeatHold(UUID.randomUUID().toString(), flight.getOwner().getId(), flightId, seat,
+                Instant.now().plus(duration));
+        // Only a committed hold may expire, a rolled back one has given its seat back already.
+        TransactionHooks.afterCommit(() -> seatHoldRegistry.register(hold));
+        log.info("Holding seat {} on flight {} until {}.", seat, flight.getFlightNumber(), hold.expiresAt());
+
+        return SeatHoldDto.builder()
+                .holdId(hold.holdId())
+                .flightId(flightId)
+                .seatNumber(seat)
+                .expiresAt(hold.expiresAt())
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public Passenger confirmHold(String holdId, Passenger passenger) {
+        var hold = claimHold(holdId);
+        // The booking takes the held seat over. If it fails, the hold is gone anyway and its seat is given back.
+        // A hold without a seat has nothing counted to take over.
+        if (null != hold.seatNumber()) {
+            TransactionHooks.afterRollback(() -> seatInventory.releaseHandedOverHold(hold.flightId()));
+            seatInventory.release(hold.flightId(), 1);
+            seatInventory.handOverSeat(hold.flightId(), hold.seatNumber());
+        }
+
+        passenger.setSeatNumber(hold.seatNumber());
+        var flight = flightService.getById(hold.flightId());
+        rejectClone(flight, passenger);
+        return book(flight, passenger);
+    }
+
+    @Override
+    public void releaseHold(String holdId) {
+        var hold = claimHold(holdId);
+        seatInventory.releaseHold(hold.flightId(), hold.seatNumber());
+    }
+
+    /**
+     * A probe of the unique flight and passport indexes, which also reject a racing duplicate on insert.
+     */
+    private void rejectClone(Flight flight, Passenger passenger) {
+        if (passengerRepository.existsOnFlightByPassportNumber(flight.getFlightId(), passenger.getPassportNumber())
+                || flightWaitlist.contains(flight.getFlightId(), passenger.getPassportNumber())) {
+            throw new DataIntegrityViolationException("Unfortunately human clones are not allowed on flight " + flight.getFlightNumber());
+        }
+    }
+
+    /**
+     * One probe for the whole party. The rare reference taken already, or drawn twice for the party, is drawn again.
+     */
+    private void assignBookingReferences(List<Passenger> party) {
+        var references = new HashSet<String>();
+        party.forEach(p -> p.setBookingReference(BookingReferences.next(reference -> !references.add(reference))));
+        var taken = new HashSet<>(passengerRepository.findBookingReferencesIn(references));
+        for (Passenger passenger : party) {
+            if (taken.contains(passenger.getBookingReference())) {
+                passenger.setBookingReference(BookingReferences.next(reference ->
+                        !references.add(reference) || passengerRepository.existsByBookingReference(reference)));
+            }
+        }
+    }
+
+    private Passenger book(Flight flight, Passenger passenger) {
+        // The seat is taken along with the passenger insert.
+        passenger.setFlight(flight);
+        var saved = passengerService.save(passenger);
+        bookingEvents.publish(OutboxEvent.BOOKING_CONFIRMED, flight, List.of(saved));
+        return saved;
+    }
+
+    private static <T> List<Integer> freedSeats(List<T> cancelled, Function<T, Integer> seatNumber) {
+        return cancelled.stream().map(seatNumber).filter(Objects::nonNull).toList();
+    }
+
+    private SeatHold claimHold(String holdId) {
+        return seatHoldRegistry.claim(holdId, userService.getCurrentUser().getId())
+                .orElseThrow(() -> new EntityNotFoundException("No active seat hold " + holdId));
+    }
+}
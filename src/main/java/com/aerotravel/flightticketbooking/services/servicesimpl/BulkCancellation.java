@@ -0,0 +1,112 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.model.projection.CancelledBooking;
+import com.aerotravel.flightticketbooking.repository.FlightRepository;
+import com.aerotravel.flightticketbooking.repository.PassengerRepository;
+import com.aerotravel.flightticketbooking.repository.WaitlistEntryRepository;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels many bookings at once with set-based deletes. The ownership is checked in the WHERE clauses
+ * of the statements rather than entity by entity, so rows of other users are left alone silently.
+ */
+@Slf4j
+@Component
+class BulkCancellation {
+
+    private final FlightRepository flightRepository;
+    private final PassengerRepository passengerRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final SeatInventory seatInventory;
+    private final FlightSearchCache flightSearchCache;
+    private final BookingEvents bookingEvents;
+
+    BulkCancellation(FlightRepository flightRepository, PassengerRepository passengerRepository,
+                     WaitlistEntryRepository waitlistEntryRepository, SeatInventory seatInventory,
+                     FlightSearchCache flightSearchCache, BookingEvents bookingEvents) {
+        this.flightRepository = flightRepository;
+        this.passengerRepository = passengerRepository;
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.seatInventory = seatInventory;
+        this.flightSearchCache = flightSearchCache;
+        this.bookingEvents = bookingEvents;
+    }
+
+    /**
+     * Cancels every booking and waitlist entry on the owned flights among the given ones.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<CancelledBooking> cancelOnFlights(Collection<Long> flightIds, long ownerId) {
+        if (flightIds.isEmpty()) return List.of();
+        var owned = flightRepository.lockOwnedFlights(flightIds, ownerId);
+        if (owned.isEmpty()) return List.of();
+
+        var cancelled = passengerRepository.findBookingsOnFlights(owned, ownerId);
+        int deleted = passengerRepository.deleteAllOnFlights(owned, ownerId);
+        rejectConcurrentChange(cancelled, deleted);
+        int unlisted = waitlistEntryRepository.deleteAllOnFlights(owned, ownerId);
+        flightRepository.resetWaitlistCounts(owned);
+        releaseSeats(cancelled);
+        owned.forEach(flightSearchCache::invalidateFlight);
+        bookingEvents.publishCancelled(cancelled);
+        log.info("Cancelled {} bookings and {} waitlist entries on {} flights.", cancelled.size(), unlisted, owned.size());
+        return cancelled;
+    }
+
+    /**
+     * Cancels the owned bookings among the given ones. Their seats are given back within the transaction,
+     * so that the waitlists may take them over.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<CancelledBooking> cancelByIds(Collection<Long> passengerIds, long ownerId) {
+        if (passengerIds.isEmpty()) return List.of();
+        // Their flights are locked before the bookings are read, so none is cancelled or moved in between.
+        flightRepository.lockFlightsOfBookings(passengerIds, ownerId);
+        var cancelled = passengerRepository.findBookingsByIds(passengerIds, ownerId);
+        if (cancelled.isEmpty()) return List.of();
+
+        int deleted = passengerRepository.deleteAllByIds(cancelled.stream().map(CancelledBooking::passengerId).toList(), ownerId);
+        rejectConcurrentChange(cancelled, deleted);
+        releaseSeats(cancelled);
+        cancelled.stream().map(CancelledBooking::flightId).filter(Objects::nonNull).distinct()
+                .forEach(flightSearchCache::invalidateFlight);
+        bookingEvents.publishCancelled(cancelled);
+        return cancelled;
+    }
+
+    /**
+     * The bookings may have been read from a snapshot of the transaction older than the locks,
+     * in which case the seats to give back are not known for sure.
+     */
+    private static void rejectConcurrentChange(List<CancelledBooking> cancelled, int deleted) {
+        if (deleted != cancelled.size()) {
+            throw new DataIntegrityViolationException(String.format(
+                    "Expected to cancel %s bookings, cancelled %s as some changed concurrently. Please retry.",
+                    cancelled.size(), deleted));
+        }
+    }
+
+    /**
+     * Gives back exactly the seats of the bookings deleted. Unlike a recount, this leaves the seats held alone.
+     */
+    private void releaseSeats(List<CancelledBooking> cancelled) {
+        cancelled.stream()
+                .filter(b -> null != b.flightId())
+                .collect(Collectors.groupingBy(CancelledBooking::flightId))
+                .forEach((flightId, bookings) -> {
+                    seatInventory.release(flightId, bookings.size());
+                    bookings.stream().map(CancelledBooking::seatNumber).filter(Objects::nonNull)
+                            .forEach(seat -> seatInventory.releaseSeat(flightId, seat));
+                });
+    }
+}
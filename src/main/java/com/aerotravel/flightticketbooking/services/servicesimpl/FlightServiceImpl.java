@@ -1,12 +1,23 @@
 package com.aerotravel.flightticketbooking.services.servicesimpl;
 
-import com.aerotravel.flightticketbooking.exception.EntityNotFoundException;
 import com.aerotravel.flightticketbooking.model.Airport;
 import com.aerotravel.flightticketbooking.model.Flight;
 import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.model.dto.FareCalendarDayDto;
+import com.aerotravel.flightticketbooking.model.dto.FlightDto;
+import com.aerotravel.flightticketbooking.model.dto.ItineraryDto;
+import com.aerotravel.flightticketbooking.model.projection.FareCalendarEntry;
 import com.aerotravel.flightticketbooking.repository.FlightRepository;
+import com.aerotravel.flightticketbooking.repository.PassengerRepository;
 import com.aerotravel.flightticketbooking.services.FlightService;
 import com.aerotravel.flightticketbooking.services.UserService;
+import com.aerotravel.flightticketbooking.services.cache.FlightRouteIndex;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import com.aerotravel.flightticketbooking.services.search.ConnectionSearch;
+import com.aerotravel.flightticketbooking.transaction.TransactionHooks;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -14,26 +25,46 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.util.Optional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Validated
 public class FlightServiceImpl extends AbstractEntityServiceImpl<Flight> implements FlightService {
 
     private static final int PAGE_SIZE = 10;
+    // How many days after the requested departure date the connecting legs may depart.
+    private static final int CONNECTION_WINDOW_DAYS = 2;
     private final FlightRepository flightRepository;
+    private final PassengerRepository passengerRepository;
     private final UserService userService;
+    private final FlightRouteIndex flightRouteIndex;
+    private final FlightSearchCache flightSearchCache;
+    private final SeatInventory seatInventory;
+    private final BulkCancellation bulkCancellation;
     private final String[] sortBy = new String[]{"departureDate"};
 
     @Autowired
-    public FlightServiceImpl(FlightRepository flightRepository, UserService userService) {
+    public FlightServiceImpl(FlightRepository flightRepository, PassengerRepository passengerRepository,
+                             UserService userService, FlightRouteIndex flightRouteIndex,
+                             FlightSearchCache flightSearchCache, SeatInventory seatInventory,
+                             BulkCancellation bulkCancellation) {
         this.flightRepository = flightRepository;
+        this.passengerRepository = passengerRepository;
         this.userService = userService;
+        this.flightRouteIndex = flightRouteIndex;
+        this.flightSearchCache = flightSearchCache;
+        this.seatInventory = seatInventory;
+        this.bulkCancellation = bulkCancellation;
     }
 
     @Override
@@ -53,6 +84,12 @@ public class FlightServiceImpl extends AbstractEntityServiceImpl<Flight> impleme
         return saveFlightForCurrentUser(flight);
     }
 
+    @Override
+    protected Predicate getCursorRestriction(CriteriaBuilder cb, Root<Flight> root) {
+        User currentUser = userService.getCurrentUser();
+        return cb.equal(root.get("owner"), currentUser);
+    }
+
     @Override
     protected String[] getSortByProperties() {
         return sortBy;
@@ -82,15 +119,30 @@ public class FlightServiceImpl extends AbstractEntityServiceImpl<Flight> impleme
     @Override
     public List<Flight> getCurrentUserFlightsByAirportAndDepartureTime(Airport depAirport, Airport destAirport, LocalDate depDate) {
         User currentUser = userService.getCurrentUser();
-        return flightRepository.findAllByOwnerAndDepartureAirportEqualsAndDestinationAirportEqualsAndDepartureDateEquals(
-                currentUser, depAirport, destAirport, depDate);
+        if (null == depAirport || null == destAirport || null == depDate) {
+            return flightRepository.findAllByOwnerAndDepartureAirportEqualsAndDestinationAirportEqualsAndDepartureDateEquals(
+                    currentUser, depAirport, destAirport, depDate);
+        }
+
+        return findAllByIds(flightRouteIndex.findFlightIds(currentUser.getId(),
+                depAirport.getAirportId(), destAirport.getAirportId(), depDate));
     }
 
     @Override
     public List<Flight> getCurrentUserFlightsByAirports(Airport depAirport, Airport destAirport) {
         User currentUser = userService.getCurrentUser();
-        return flightRepository.findAllByOwnerAndDepartureAirportEqualsAndDestinationAirportEquals(
-                currentUser, depAirport, destAirport);
+        if (null == depAirport || null == destAirport) {
+            return flightRepository.findAllByOwnerAndDepartureAirportEqualsAndDestinationAirportEquals(
+                    currentUser, depAirport, destAirport);
+        }
+
+        return findAllByIds(flightRouteIndex.findFlightIds(currentUser.getId(),
+                depAirport.getAirportId(), destAirport.getAirportId(), null));
+    }
+
+    private List<Flight> findAllByIds(List<Long> flightIds) {
+        // Primary key lookups only, the route index has already done the filtering.
+        return flightIds.isEmpty() ? List.of() : flightRepository.findAllById(flightIds);
     }
 
     @Override
@@ -100,43 +152,153 @@ public class FlightServiceImpl extends AbstractEntityServiceImpl<Flight> impleme
     }
 
     @Override
+    @Transactional
     public Flight saveFlightForCurrentUser(Flight flight) {
         User currentUser = userService.getCurrentUser();
         flight.setOwner(currentUser);
-        return flightRepository.save(flight);
+        boolean isNew = 0 == flight.getFlightId();
+        Integer previousCapacity = isNew ? null : flightRepository.findCapacityById(flight.getFlightId());
+        var saved = flightRepository.save(flight);
+        if (!isNew) {
+            // The aircraft may have been changed, read back as the one given may carry its id only.
+            seatInventory.changeCapacity(saved.getFlightId(), previousCapacity,
+                    flightRepository.findCapacityById(saved.getFlightId()));
+        }
+        // Applied once committed, so that a search meanwhile does not see an uncommitted or rolled back route.
+        TransactionHooks.afterCommit(() -> flightRouteIndex.onFlightSaved(currentUser.getId(), saved));
+        // The results listing the flight on its previous route as well as the ones of its current route.
+        flightSearchCache.invalidateFlight(saved.getFlightId());
+        if (null != saved.getDepartureAirport() && null != saved.getDestinationAirport()) {
+            flightSearchCache.invalidateRoute(currentUser.getId(),
+                    saved.getDepartureAirport().getAirportId(), saved.getDestinationAirport().getAirportId());
+        }
+        return saved;
     }
 
-    // SECURITY OVERRIDES - Ensure user ownership validation
+    @Override
+    public List<FlightDto> getCurrentUserFlightDtosByAirportAndDepartureTime(Airport depAirport, Airport destAirport, LocalDate depDate) {
+        User currentUser = userService.getCurrentUser();
+        return flightSearchCache.get(currentUser.getId(), depAirport.getAirportId(), destAirport.getAirportId(), depDate,
+                () -> withPassengerIds(flightRepository.findDtosByOwnerIdAndRouteAndDepartureDate(
+                        currentUser.getId(), depAirport.getAirportId(), destAirport.getAirportId(), depDate)));
+    }
+
+    @Override
+    public List<FlightDto> getCurrentUserFlightDtosByAirports(Airport depAirport, Airport destAirport) {
+        User currentUser = userService.getCurrentUser();
+        return flightSearchCache.get(currentUser.getId(), depAirport.getAirportId(), destAirport.getAirportId(), null,
+                () -> withPassengerIds(flightRepository.findDtosByOwnerIdAndRoute(
+                        currentUser.getId(), depAirport.getAirportId(), destAirport.getAirportId())));
+    }
+
+    @Override
+    public List<FlightDto> getCurrentUserFlightDtosByFlightNumber(String flightNumber) {
+        User currentUser = userService.getCurrentUser();
+        return withPassengerIds(flightRepository.findDtosByOwnerIdAndFlightNumber(currentUser.getId(), flightNumber));
+    }
 
     @Override
-    public Flight getById(Long entityId) {
-        if (null == entityId) throw new IllegalArgumentException("Entity ID shall not be null.");
-        Flight entity = flightRepository.findById(entityId)
-                .orElseThrow(() -> new EntityNotFoundException("Flight not found with id: " + entityId));
+    public List<FlightDto> getCurrentUserFlightDtosByAreas(String depArea, String destArea, LocalDate depDate) {
         User currentUser = userService.getCurrentUser();
-        if (!entity.getOwner().getId().equals(currentUser.getId())) {
-            throw new EntityNotFoundException("Flight not found with id: " + entityId);
+        // All the airport pairs at once, the areas are resolved by the owner's city/country indexes.
+        return withPassengerIds(flightRepository.findDtosByOwnerIdAndAreasAndDepartureDate(
+                currentUser.getId(), depArea.trim(), destArea.trim(), depDate));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachCurrentUserFlightDto(Consumer<FlightDto> consumer) {
+        Long ownerId = userService.getCurrentUser().getId();
+        forEachInChunks((afterId, chunk) ->
+                withPassengerIds(flightRepository.findDtosByOwnerIdAfter(ownerId, afterId, chunk)), consumer);
+    }
+
+    private List<FlightDto> withPassengerIds(List<FlightDto> flights) {
+        if (flights.isEmpty()) return flights;
+
+        // One query for all the flights found instead of initializing every passengers collection.
+        var byId = flights.stream().collect(Collectors.toMap(FlightDto::getFlightId, Function.identity()));
+        passengerRepository.findPassengerRefsByFlightIds(byId.keySet())
+                .forEach(ref -> byId.get(ref.flightId()).getPassengerIds().add(ref.passengerId()));
+        return flights;
+    }
+
+    @Override
+    public List<ItineraryDto> getCurrentUserConnections(Airport depAirport, Airport destAirport, LocalDate depDate,
+                                                        int maxLegs, int limit, int minConnectionMinutes) {
+        User currentUser = userService.getCurrentUser();
+        // A single query for the whole travel window, the hops are resolved in memory.
+        var legs = flightRepository.findLegsByOwnerIdAndDepartureDateBetween(
+                currentUser.getId(), depDate, depDate.plusDays(CONNECTION_WINDOW_DAYS));
+        return ConnectionSearch.of(legs).search(depAirport.getAirportId(), destAirport.getAirportId(), depDate,
+                maxLegs, limit, minConnectionMinutes);
+    }
+
+    @Override
+    public List<FareCalendarDayDto> getCurrentUserFareCalendar(Airport depAirport, Airport destAirport, LocalDate depDate,
+                                                               int flexDays) {
+        User currentUser = userService.getCurrentUser();
+        var fromDate = depDate.minusDays(flexDays);
+        var toDate = depDate.plusDays(flexDays);
+        var byDate = flightRepository.findFareCalendar(currentUser.getId(),
+                        depAirport.getAirportId(), destAirport.getAirportId(), fromDate, toDate)
+                .stream()
+                .collect(Collectors.toMap(FareCalendarEntry::departureDate, Function.identity()));
+
+        // Every day of the window is reported, the ones without flights as well.
+        var calendar = new ArrayList<FareCalendarDayDto>();
+        for (var date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+            var entry = byDate.get(date);
+            calendar.add(FareCalendarDayDto.builder()
+                    .departureDate(date)
+                    .cheapestFlightCharge(null == entry ? null : entry.cheapestFlightCharge())
+                    .flightCount(null == entry ? 0 : entry.flightCount())
+                    .build());
         }
-        return entity;
+        return calendar;
+    }
+
+    // SECURITY OVERRIDES - Ensure user ownership validation
+
+    @Override
+    protected Long getOwnerScope() {
+        return userService.getCurrentUser().getId();
     }
 
     @Override
     public Optional<Flight> getOptionallyById(Long entityId) {
-        if (null == entityId) return Optional.empty();
-        Optional<Flight> entity = flightRepository.findById(entityId);
-        if (entity.isPresent()) {
-            User currentUser = userService.getCurrentUser();
-            if (!entity.get().getOwner().getId().equals(currentUser.getId())) {
-                return Optional.empty();
-            }
-        }
-        return entity;
+        return null == entityId ? Optional.empty() : super.getOptionallyById(entityId);
     }
 
     @Override
+    @Transactional
     public void deleteById(Long entityId) {
-        getById(entityId); // This validates ownership
+        var existing = getById(entityId); // This validates ownership
+        // The bookings go first, by a single statement rather than one by one.
+        bulkCancellation.cancelOnFlights(List.of(entityId), existing.getOwner().getId());
         flightRepository.deleteById(entityId);
+        long ownerId = existing.getOwner().getId();
+        TransactionHooks.afterCommit(() -> flightRouteIndex.onFlightDeleted(ownerId, entityId));
+        flightSearchCache.invalidateFlight(entityId);
+        seatInventory.forgetFlight(entityId);
+    }
+
+    @Override
+    @Transactional
+    public int deleteAllByAircraftId(long aircraftId) {
+        long ownerId = userService.getCurrentUser().getId();
+        var flightIds = flightRepository.lockOwnedFlightsByAircraftId(aircraftId, ownerId);
+        if (flightIds.isEmpty()) return 0;
+
+        bulkCancellation.cancelOnFlights(flightIds, ownerId);
+        int deleted = flightRepository.deleteAllOwnedByIds(flightIds, ownerId);
+        TransactionHooks.afterCommit(
+                () -> flightIds.forEach(flightId -> flightRouteIndex.onFlightDeleted(ownerId, flightId)));
+        flightIds.forEach(flightId -> {
+            flightSearchCache.invalidateFlight(flightId);
+            seatInventory.forgetFlight(flightId);
+        });
+        return deleted;
     }
 
     @Override
@@ -0,0 +1,152 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.model.Flight;
+import com.aerotravel.flightticketbooking.model.OutboxEvent;
+import com.aerotravel.flightticketbooking.model.Passenger;
+import com.aerotravel.flightticketbooking.model.WaitlistEntry;
+import com.aerotravel.flightticketbooking.repository.FlightRepository;
+import com.aerotravel.flightticketbooking.repository.PassengerRepository;
+import com.aerotravel.flightticketbooking.repository.WaitlistEntryRepository;
+import com.aerotravel.flightticketbooking.services.BookingResult;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-flight FIFO waitlist. The depth is kept in the flight row next to the entries,
+ * so that searches read it along with the flight instead of counting.
+ * <p>
+ * The entries are booked onto the seats given back, whichever way: within the cancelling transaction,
+ * or once any other release commits. The bookings serve the waitlist first as well.
+ */
+@Slf4j
+@Component
+class FlightWaitlist {
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final FlightRepository flightRepository;
+    private final PassengerRepository passengerRepository;
+    private final SeatInventory seatInventory;
+    private final FlightSearchCache flightSearchCache;
+    private final BookingEvents bookingEvents;
+
+    FlightWaitlist(WaitlistEntryRepository waitlistEntryRepository, FlightRepository flightRepository,
+                   PassengerRepository passengerRepository, SeatInventory seatInventory,
+                   FlightSearchCache flightSearchCache, BookingEvents bookingEvents) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.flightRepository = flightRepository;
+        this.passengerRepository = passengerRepository;
+        this.seatInventory = seatInventory;
+        this.flightSearchCache = flightSearchCache;
+        this.bookingEvents = bookingEvents;
+    }
+
+    public boolean contains(long flightId, String passportNumber) {
+        return waitlistEntryRepository.existsByFlightFlightIdAndPassportNumber(flightId, passportNumber);
+    }
+
+    public List<String> findWaitlisted(long flightId, Collection<String> passportNumbers) {
+        return waitlistEntryRepository.findPassportNumbersOnFlight(flightId, passportNumbers);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BookingResult enqueue(Flight flight, Passenger passenger) {
+        var entry = waitlistEntryRepository.save(WaitlistEntry.of(passenger, flight));
+        flightRepository.incrementWaitlistCount(flight.getFlightId());
+        flightSearchCache.invalidateFlight(flight.getFlightId());
+        int position = flightRepository.findWaitlistCount(flight.getFlightId());
+        log.info("Flight {} is full, passenger {} is waitlisted at {}.", flight.getFlightNumber(), entry.getWaitlistEntryId(), position);
+        return BookingResult.waitlisted(entry, position);
+    }
+
+    /**
+     * Removes the head of the waitlist. The caller shall hold the flight row lock, so that two
+     * cancellations do not promote the same entry.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<WaitlistEntry> poll(long flightId) {
+        var head = waitlistEntryRepository.findFirstByFlightFlightIdOrderByWaitlistEntryIdAsc(flightId);
+        head.ifPresent(entry -> {
+            waitlistEntryRepository.delete(entry);
+            flightRepository.decrementWaitlistCount(flightId);
+            flightSearchCache.invalidateFlight(flightId);
+        });
+        return head;
+    }
+
+    /**
+     * Books the waitlist, head first, while seats are left. The seats freed within the transaction are still
+     * pending release, so the first ones promoted take them over; the others get any free seat.
+     * The flight row lock taken by the seat check serializes the promotions.
+     *
+     * @return the passengers promoted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Passenger> promote(Flight flight, List<Integer> freedSeats) {
+        if (0 == flightRepository.findWaitlistCount(flight.getFlightId())) return List.of();
+
+        var promoted = new ArrayList<Passenger>();
+        while (seatInventory.hasSeatsLeft(flight, 1)) {
+            var entry = pollBookable(flight.getFlightId());
+            if (entry.isEmpty()) break;
+            var seat = promoted.size() < freedSeats.size() ? freedSeats.get(promoted.size()) : null;
+            promoted.add(book(flight, entry.get(), seat));
+        }
+        return promoted;
+    }
+
+    /**
+     * Seats given back other than by a cancellation, e.g. by a passenger deleted or moved, an expired hold
+     * or a bigger aircraft, go to the waitlist once the release commits.
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onSeatsReleased(SeatsReleased event) {
+        if (0 == flightRepository.findWaitlistCount(event.flightId())) return;
+
+        flightRepository.findById(event.flightId()).ifPresent(flight -> promote(flight, List.of()));
+    }
+
+    /**
+     * Removes the head of the waitlist which may still be booked. An entry whose passport got booked on the flight
+     * meanwhile, e.g. by editing a passenger, is dropped, as promoting it would violate the unique flight and passport
+     * index and roll the cancellation back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<WaitlistEntry> pollBookable(long flightId) {
+        for (var head = poll(flightId); head.isPresent(); head = poll(flightId)) {
+            var entry = head.get();
+            if (!passengerRepository.existsOnFlightByPassportNumber(flightId, entry.getPassportNumber())) {
+                return head;
+            }
+            log.warn("Dropped the waitlist entry {} of flight {}, passport {} is booked on it already.",
+                    entry.getWaitlistEntryId(), flightId, entry.getPassportNumber());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Booked for the flight owner, like the entry, as there may be no current user, e.g. on a hold expiry.
+     */
+    private Passenger book(Flight flight, WaitlistEntry entry, Integer seat) {
+        var passenger = entry.toPassenger();
+        passenger.setFlight(flight);
+        passenger.setOwner(flight.getOwner());
+        passenger.setSeatNumber(seatInventory.takeSeat(flight, seat));
+        seatInventory.reserve(flight, 1);
+        passenger.setBookingReference(BookingReferences.next(passengerRepository::existsByBookingReference));
+        var saved = passengerRepository.save(passenger);
+        flightSearchCache.invalidateFlight(flight.getFlightId());
+        bookingEvents.publish(OutboxEvent.BOOKING_CONFIRMED, flight, List.of(saved));
+        log.info("Promoted the waitlist entry {} to the flight {}.", entry.getWaitlistEntryId(), flight.getFlightNumber());
+        return saved;
+    }
+}
@@ -0,0 +1,59 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.exception.InvalidCursorException;
+import org.springframework.util.ClassUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Base64;
+
+/**
+ * Position of a keyset pagination: the sort key and the id of the last entity returned.
+ * <p>
+ * Encoded as an opaque URL-safe token, the clients are not supposed to look inside.
+ */
+record KeysetCursor(Comparable<?> sortValue, long id) {
+
+    private static final char NULL_MARK = 'N';
+    private static final char VALUE_MARK = 'V';
+    private static final char SEPARATOR = ':';
+
+    String encode() {
+        var plain = id + String.valueOf(SEPARATOR) + (null == sortValue ? NULL_MARK : VALUE_MARK + sortValue.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static KeysetCursor decode(String token, Class<?> sortType) {
+        try {
+            var plain = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = plain.indexOf(SEPARATOR);
+            var id = Long.parseLong(plain.substring(0, separator));
+            var marked = plain.substring(separator + 1);
+            if (marked.equals(String.valueOf(NULL_MARK))) {
+                return new KeysetCursor(null, id);
+            }
+            if (marked.isEmpty() || marked.charAt(0) != VALUE_MARK) {
+                throw new InvalidCursorException("Malformed cursor: " + token);
+            }
+            return new KeysetCursor(parse(marked.substring(1), ClassUtils.resolvePrimitiveIfNecessary(sortType)), id);
+        } catch (RuntimeException e) {
+            if (e instanceof InvalidCursorException) throw e;
+            throw new InvalidCursorException("Malformed cursor: " + token, e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparable<?> parse(String value, Class<?> type) {
+        if (String.class == type) return value;
+        if (LocalDate.class == type) return LocalDate.parse(value);
+        if (LocalDateTime.class == type) return LocalDateTime.parse(value);
+        if (LocalTime.class == type) return LocalTime.parse(value);
+        if (Long.class == type) return Long.valueOf(value);
+        if (Integer.class == type) return Integer.valueOf(value);
+        if (Double.class == type) return Double.valueOf(value);
+        if (type.isEnum()) return Enum.valueOf((Class<? extends Enum>) type, value);
+        throw new IllegalStateException("Unsupported keyset sort type: " + type.getName());
+    }
+}
@@ -1,11 +1,15 @@
 package com.aerotravel.flightticketbooking.services.servicesimpl;
 
-import com.aerotravel.flightticketbooking.exception.EntityNotFoundException;
 import com.aerotravel.flightticketbooking.model.Passenger;
 import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.model.projection.PassengerSeat;
 import com.aerotravel.flightticketbooking.repository.PassengerRepository;
 import com.aerotravel.flightticketbooking.services.PassengerService;
 import com.aerotravel.flightticketbooking.services.UserService;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -13,8 +17,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.Objects;
 import java.util.Optional;
 
 import java.util.List;
@@ -26,12 +32,17 @@ public class PassengerServiceImpl extends AbstractEntityServiceImpl<Passenger> i
     private static final int PAGE_SIZE = 10;
     private final PassengerRepository passengerRepository;
     private final UserService userService;
+    private final FlightSearchCache flightSearchCache;
+    private final SeatInventory seatInventory;
     private final String[] sortBy = new String[]{"lastName"};
 
     @Autowired
-    public PassengerServiceImpl(PassengerRepository passengerRepository, UserService userService) {
+    public PassengerServiceImpl(PassengerRepository passengerRepository, UserService userService,
+                                FlightSearchCache flightSearchCache, SeatInventory seatInventory) {
         this.passengerRepository = passengerRepository;
         this.userService = userService;
+        this.flightSearchCache = flightSearchCache;
+        this.seatInventory = seatInventory;
     }
 
     @Override
@@ -51,6 +62,12 @@ public class PassengerServiceImpl extends AbstractEntityServiceImpl<Passenger> i
         return savePassengerForCurrentUser(passenger);
     }
 
+    @Override
+    protected Predicate getCursorRestriction(CriteriaBuilder cb, Root<Passenger> root) {
+        User currentUser = userService.getCurrentUser();
+        return cb.equal(root.get("owner"), currentUser);
+    }
+
     @Override
     protected String[] getSortByProperties() {
         return sortBy;
@@ -74,43 +91,73 @@ public class PassengerServiceImpl extends AbstractEntityServiceImpl<Passenger> i
     }
 
     @Override
+    @Transactional
     public Passenger savePassengerForCurrentUser(Passenger passenger) {
         User currentUser = userService.getCurrentUser();
         passenger.setOwner(currentUser);
-        return passengerRepository.save(passenger);
+        var previous = 0 == passenger.getPassengerId()
+                ? new PassengerSeat(null, null, null)
+                : passengerRepository.findSeatByPassengerId(passenger.getPassengerId()).orElse(new PassengerSeat(null, null, null));
+        passenger.setBookingReference(null != previous.bookingReference() ? previous.bookingReference()
+                : BookingReferences.next(passengerRepository::existsByBookingReference));
+        var flightId = null == passenger.getFlight() ? null : passenger.getFlight().getFlightId();
+        if (!Objects.equals(previous.flightId(), flightId)) {
+            if (null != flightId) {
+                passenger.setSeatNumber(seatInventory.takeSeat(passenger.getFlight(), passenger.getSeatNumber()));
+                seatInventory.reserve(passenger.getFlight(), 1);
+            } else {
+                passenger.setSeatNumber(null);
+            }
+            if (null != previous.flightId()) {
+                seatInventory.release(previous.flightId(), 1);
+                seatInventory.releaseSeat(previous.flightId(), previous.seatNumber());
+            }
+        } else if (null != flightId) {
+            // Same flight: no seat requested keeps the current one, another one is a seat change.
+            if (null == passenger.getSeatNumber()) {
+                passenger.setSeatNumber(previous.seatNumber());
+            } else if (!passenger.getSeatNumber().equals(previous.seatNumber())) {
+                passenger.setSeatNumber(seatInventory.takeSeat(passenger.getFlight(), passenger.getSeatNumber()));
+                seatInventory.releaseSeat(flightId, previous.seatNumber());
+            }
+        }
+        var saved = passengerRepository.save(passenger);
+        // The cached search results list passenger ids, so the previous flight is stale as well.
+        if (null != previous.flightId()) {
+            flightSearchCache.invalidateFlight(previous.flightId());
+        }
+        invalidateSearchesOf(saved);
+        return saved;
+    }
+
+    private void invalidateSearchesOf(Passenger passenger) {
+        if (null != passenger.getFlight()) {
+            flightSearchCache.invalidateFlight(passenger.getFlight().getFlightId());
+        }
     }
 
     // SECURITY OVERRIDES - Ensure user ownership validation
 
     @Override
-    public Passenger getById(Long entityId) {
-        if (null == entityId) throw new IllegalArgumentException("Entity ID shall not be null.");
-        Passenger entity = passengerRepository.findById(entityId)
-                .orElseThrow(() -> new EntityNotFoundException("Passenger not found with id: " + entityId));
-        User currentUser = userService.getCurrentUser();
-        if (!entity.getOwner().getId().equals(currentUser.getId())) {
-            throw new EntityNotFoundException("Passenger not found with id: " + entityId);
-        }
-        return entity;
+    protected Long getOwnerScope() {
+        return userService.getCurrentUser().getId();
     }
 
     @Override
     public Optional<Passenger> getOptionallyById(Long entityId) {
-        if (null == entityId) return Optional.empty();
-        Optional<Passenger> entity = passengerRepository.findById(entityId);
-        if (entity.isPresent()) {
-            User currentUser = userService.getCurrentUser();
-            if (!entity.get().getOwner().getId().equals(currentUser.getId())) {
-                return Optional.empty();
-            }
-        }
-        return entity;
+        return null == entityId ? Optional.empty() : super.getOptionallyById(entityId);
     }
 
     @Override
+    @Transactional
     public void deleteById(Long entityId) {
-        getById(entityId); // This validates ownership
+        var existing = getById(entityId); // This validates ownership
         passengerRepository.deleteById(entityId);
+        if (null != existing.getFlight()) {
+            seatInventory.release(existing.getFlight().getFlightId(), 1);
+            seatInventory.releaseSeat(existing.getFlight().getFlightId(), existing.getSeatNumber());
+        }
+        invalidateSearchesOf(existing);
     }
 
     @Override
@@ -0,0 +1,89 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.services.cache.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Active seat holds by id. Each hold has a timeout on a timing wheel, which gives its seat back on expiry;
+ * claiming a hold cancels the timeout, so a hold is either claimed or expired, never both.
+ */
+@Slf4j
+@Component
+class SeatHoldRegistry {
+
+    private final ConcurrentHashMap<String, HashedTimingWheel.Timeout<SeatHold>> holds = new ConcurrentHashMap<>();
+    private final HashedTimingWheel<SeatHold> wheel;
+    private final SeatInventory seatInventory;
+
+    @Autowired
+    SeatHoldRegistry(SeatInventory seatInventory,
+                     @Value("${ftb.seat-hold.tick:PT1S}") Duration tick,
+                     @Value("${ftb.seat-hold.wheel-size:2048}") int wheelSize) {
+        this.seatInventory = seatInventory;
+        this.wheel = new HashedTimingWheel<>(tick, wheelSize, this::expire);
+    }
+
+    @PostConstruct
+    void start() {
+        wheel.start();
+    }
+
+    /**
+     * The holds do not survive a restart, so their seats are given back rather than left counted as taken.
+     */
+    @PreDestroy
+    void stop() {
+        wheel.close();
+        holds.values().forEach(timeout -> {
+            if (!timeout.cancel()) return;
+            var hold = timeout.getItem();
+            try {
+                seatInventory.releaseHold(hold.flightId(), hold.seatNumber());
+            } catch (RuntimeException e) {
+                log.warn("Failed to release seat hold {} on flight {} on shutdown.", hold.holdId(), hold.flightId(), e);
+            }
+        });
+        holds.clear();
+    }
+
+    public void register(SeatHold hold) {
+        holds.put(hold.holdId(), wheel.schedule(hold, Duration.between(Instant.now(), hold.expiresAt())));
+    }
+
+    /**
+     * Takes the hold away from the expiry.
+     *
+     * @return empty when there is no such active hold of the owner.
+     */
+    public Optional<SeatHold> claim(String holdId, long ownerId) {
+        var timeout = holds.get(holdId);
+        if (null == timeout || timeout.getItem().ownerId() != ownerId || !timeout.cancel()) {
+            return Optional.empty();
+        }
+        holds.remove(holdId);
+        return Optional.of(timeout.getItem());
+    }
+
+    public int size() {
+        return holds.size();
+    }
+
+    private void expire(SeatHold hold) {
+        holds.remove(hold.holdId());
+        seatInventory.releaseHold(hold.flightId(), hold.seatNumber());
+        log.info("Seat hold {} on flight {} expired.", hold.holdId(), hold.flightId());
+    }
+
+    record SeatHold(String holdId, long ownerId, long flightId, Integer seatNumber, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,349 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.model.Flight;
+import com.aerotravel.flightticketbooking.repository.FlightRepository;
+import com.aerotravel.flightticketbooking.repository.PassengerRepository;
+import com.aerotravel.flightticketbooking.services.cache.SeatMap;
+import com.aerotravel.flightticketbooking.services.cache.SeatMapCache;
+import com.aerotravel.flightticketbooking.transaction.TransactionHooks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Per-flight seats remaining counter, kept in the flight row.
+ * <p>
+ * Seats are taken by a single conditional update, so concurrent bookings never oversell and never lock more
+ * than the flight row for the rest of their transaction. The counter is computed lazily from the aircraft capacity,
+ * the passengers booked and the seats held here, and is adjusted by the difference when the capacity changes.
+ * Flights without a known capacity are not limited.
+ * <p>
+ * Specific seats are picked on the in-memory seat map of the flight, which is loaded from the booked seats.
+ * A seat taken there is given back if the booking rolls back, a seat freed is given back once the release commits;
+ * the unique flight and seat constraint catches whatever slips between a reload and a commit.
+ * <p>
+ * Seat holds take a seat the same way and live in memory only: their seats are kept across the seat map reloads
+ * until released or booked, and given back on shutdown. The counters are recounted on startup only if enabled,
+ * i.e. for a single instance, as the seats held by other instances would be counted as free.
+ */
+@Slf4j
+@Component
+class SeatInventory {
+
+    private final FlightRepository flightRepository;
+    private final PassengerRepository passengerRepository;
+    private final SeatMapCache seatMapCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean recountOnStartup;
+    // Seats held by the active holds of this instance by flight. No passenger row has them yet.
+    private final ConcurrentHashMap<Long, Set<Integer>> heldSeats = new ConcurrentHashMap<>();
+
+    @Autowired
+    SeatInventory(FlightRepository flightRepository, PassengerRepository passengerRepository, SeatMapCache seatMapCache,
+                  ApplicationEventPublisher eventPublisher,
+                  @Value("${ftb.seat-inventory.recount-on-startup:false}") boolean recountOnStartup) {
+        this.flightRepository = flightRepository;
+        this.passengerRepository = passengerRepository;
+        this.seatMapCache = seatMapCache;
+        this.eventPublisher = eventPublisher;
+        this.recountOnStartup = recountOnStartup;
+    }
+
+    @Transactional
+    public void reserve(Flight flight, int seats) {
+        long flightId = flight.getFlightId();
+        if (1 == flightRepository.reserveSeats(flightId, seats)) {
+            return;
+        }
+        if (1 == flightRepository.initSeatsRemaining(flightId, countHeldSeats(flightId))) {
+            log.info("Counted the seats remaining on flight {}.", flightId);
+        }
+        // Counted by now, here or by a concurrent booking which got the flight row first: worth another try either way.
+        if (1 == flightRepository.reserveSeats(flightId, seats)) {
+            return;
+        }
+        if (null == flight.getAircraft() || null == flight.getAircraft().getNumberOfSeats()) {
+            return;
+        }
+
+        throw new DataIntegrityViolationException(String.format("Not enough seats left on flight %s, %s requested.",
+                flight.getFlightNumber(), seats));
+    }
+
+    /**
+     * Gives counted seats back, for the waitlist to take over once the transaction commits.
+     */
+    @Transactional
+    public void release(long flightId, int seats) {
+        // Not counted yet - nothing to give back, the passenger row is gone by the time it is counted.
+        if (1 == flightRepository.releaseSeats(flightId, seats)) {
+            eventPublisher.publishEvent(new SeatsReleased(flightId));
+        }
+    }
+
+    /**
+     * Takes the requested seat, or any free one when none is requested.
+     *
+     * @return the seat taken, or {@code null} when the flight has no known capacity.
+     */
+    public Integer takeSeat(Flight flight, Integer requestedSeat) {
+        var seatMap = getSeatMap(flight);
+        if (null == seatMap) {
+            if (null != requestedSeat) {
+                throw new DataIntegrityViolationException(String.format(
+                        "Flight %s has no seat map, seat %s cannot be selected.", flight.getFlightNumber(), requestedSeat));
+            }
+            return null;
+        }
+
+        int seat;
+        Boolean pendingRelease = null;
+        if (null == requestedSeat) {
+            seat = seatMap.takeAny();
+            if (0 == seat) {
+                throw new DataIntegrityViolationException("No seats left on flight " + flight.getFlightNumber());
+            }
+        } else if (!seatMap.contains(requestedSeat)) {
+            throw new DataIntegrityViolationException(String.format(
+                    "There is no seat %s on flight %s.", requestedSeat, flight.getFlightNumber()));
+        } else if (null != (pendingRelease = takePendingRelease(flight.getFlightId(), requestedSeat))) {
+            // Marked again in case the map was reloaded since.
+            seatMap.take(requestedSeat);
+            seat = requestedSeat;
+            if (!pendingRelease) {
+                // Upon a rollback the seat stays with whom released it.
+                return seat;
+            }
+        } else if (seatMap.take(requestedSeat)) {
+            seat = requestedSeat;
+        } else {
+            throw new DataIntegrityViolationException(String.format(
+                    "Seat %s on flight %s is taken already.", requestedSeat, flight.getFlightNumber()));
+        }
+
+        TransactionHooks.afterRollback(() -> seatMap.release(seat));
+        return seat;
+    }
+
+    /**
+     * Keeps the seat taken for a hold out of the seat map reloads and the recounts until the hold is released
+     * or booked. Unless the current transaction commits, the seat is not held after all.
+     */
+    public void markHeld(long flightId, Integer seat) {
+        if (null == seat) return;
+
+        heldSeats.compute(flightId, (id, seats) -> {
+            var held = null == seats ? ConcurrentHashMap.<Integer>newKeySet() : seats;
+            held.add(seat);
+            return held;
+        });
+        TransactionHooks.afterRollback(() -> unmarkHeld(flightId, seat));
+    }
+
+    /**
+     * Gives a seat hold back, in its own transaction as it runs on expiry or on shutdown. A hold without a seat
+     * was taken while the flight had no known capacity, so no seat was counted for it.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void releaseHold(long flightId, Integer seat) {
+        if (null == seat) return;
+
+        unmarkHeld(flightId, seat);
+        release(flightId, 1);
+        releaseSeat(flightId, seat);
+    }
+
+    /**
+     * Gives back the seat counted for a hold whose booking rolled back. The seat itself was handed over.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void releaseHandedOverHold(long flightId) {
+        release(flightId, 1);
+    }
+
+    /**
+     * Lets the current transaction book the seat taken by a hold. Unless booked, the seat is given back
+     * once the transaction completes, whatever the outcome.
+     */
+    public void handOverSeat(long flightId, int seat) {
+        unmarkHeld(flightId, seat);
+        releaseOnCompletion(flightId, seat, true);
+    }
+
+    /**
+     * Gives the seat back once the transaction commits. Until then the transaction may book the seat again,
+     * e.g. for a passenger promoted from the waitlist.
+     */
+    public void releaseSeat(long flightId, Integer seat) {
+        if (null == seat) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            releaseOnCompletion(flightId, seat, false);
+        } else {
+            releaseNow(flightId, seat);
+        }
+    }
+
+    /**
+     * Locks the flight row for the rest of the transaction, so that the answer holds until the booking is made.
+     */
+    @Transactional
+    public boolean hasSeatsLeft(Flight flight, int seats) {
+        flightRepository.initSeatsRemaining(flight.getFlightId(), countHeldSeats(flight.getFlightId()));
+        var remaining = flightRepository.findSeatsRemainingForUpdate(flight.getFlightId());
+        return null == remaining || remaining >= seats;
+    }
+
+    /**
+     * @return {@code null} when the flight has no known capacity.
+     */
+    public SeatMap getSeatMap(Flight flight) {
+        if (null == flight.getAircraft() || null == flight.getAircraft().getNumberOfSeats()) {
+            return null;
+        }
+
+        int capacity = flight.getAircraft().getNumberOfSeats();
+        return seatMapCache.get(flight.getFlightId(), flightId -> {
+            var seatMap = new SeatMap(capacity);
+            Stream.concat(passengerRepository.findSeatNumbersByFlightId(flightId).stream(),
+                            heldSeats.getOrDefault(flightId, Set.of()).stream())
+                    .filter(seatMap::contains)
+                    .forEach(seatMap::take);
+            log.info("Loaded the seat map of flight {}, {} of {} seats available.",
+                    flightId, seatMap.getAvailable(), capacity);
+            return seatMap;
+        });
+    }
+
+    /**
+     * Follows a change of the flight capacity, e.g. by another aircraft. The counter is adjusted by the difference,
+     * as a recount would miss the seats held elsewhere; it is only counted anew when there was no capacity before.
+     */
+    @Transactional
+    public void changeCapacity(long flightId, Integer previousCapacity, Integer capacity) {
+        if (Objects.equals(previousCapacity, capacity)) return;
+
+        if (null == previousCapacity || null == capacity) {
+            flightRepository.resetSeatsRemaining(flightId);
+        } else {
+            flightRepository.adjustSeatsRemaining(flightId, capacity - previousCapacity);
+        }
+        evictSeatMaps(List.of(flightId));
+        if (isIncrease(previousCapacity, capacity)) {
+            eventPublisher.publishEvent(new SeatsReleased(flightId));
+        }
+    }
+
+    /**
+     * Follows a change of the number of seats of an aircraft on all its flights, as {@link #changeCapacity} does.
+     */
+    @Transactional
+    public void changeAircraftCapacity(long aircraftId, Integer previousCapacity, Integer capacity) {
+        if (Objects.equals(previousCapacity, capacity)) return;
+
+        if (null == previousCapacity || null == capacity) {
+            flightRepository.resetSeatsRemainingByAircraftId(aircraftId);
+        } else {
+            flightRepository.adjustSeatsRemainingByAircraftId(aircraftId, capacity - previousCapacity);
+        }
+        var flightIds = flightRepository.findIdsByAircraftId(aircraftId);
+        evictSeatMaps(flightIds);
+        if (isIncrease(previousCapacity, capacity)) {
+            flightIds.forEach(flightId -> eventPublisher.publishEvent(new SeatsReleased(flightId)));
+        }
+    }
+
+    /**
+     * Gives back the seats a crash may have left reserved for holds. Only safe with a single instance,
+     * where no other instance holds seats meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recountAfterStartup() {
+        if (!recountOnStartup) return;
+
+        int reset = flightRepository.resetAllSeatsRemaining();
+        log.info("Reset the seats remaining of {} flights to be recounted.", reset);
+    }
+
+    public void forgetFlight(long flightId) {
+        seatMapCache.evict(flightId);
+    }
+
+    /**
+     * Evicted once more after the commit, as the seat maps may be reloaded from the uncommitted state meanwhile.
+     */
+    private void evictSeatMaps(Collection<Long> flightIds) {
+        TransactionHooks.nowAndAfterCommit(() -> flightIds.forEach(seatMapCache::evict));
+    }
+
+    /**
+     * No capacity is no limit, so going from or to it may leave seats for the waitlist as well.
+     */
+    private static boolean isIncrease(Integer previousCapacity, Integer capacity) {
+        return null == previousCapacity || null == capacity || capacity > previousCapacity;
+    }
+
+    private int countHeldSeats(long flightId) {
+        return heldSeats.getOrDefault(flightId, Set.of()).size();
+    }
+
+    private void unmarkHeld(long flightId, int seat) {
+        heldSeats.computeIfPresent(flightId, (id, seats) -> {
+            seats.remove(seat);
+            return seats.isEmpty() ? null : seats;
+        });
+    }
+
+    private void releaseOnCompletion(long flightId, int seat, boolean evenOnRollback) {
+        var pendingRelease = new PendingSeatRelease(flightId, seat);
+        if (TransactionSynchronizationManager.hasResource(pendingRelease)) return;
+
+        TransactionSynchronizationManager.bindResource(pendingRelease, evenOnRollback);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // Still bound unless booked again by the transaction.
+                if (null != TransactionSynchronizationManager.unbindResourceIfPossible(pendingRelease)
+                        && (STATUS_COMMITTED == status || evenOnRollback)) {
+                    releaseNow(flightId, seat);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return {@code null} unless the seat is pending release in the current transaction,
+     * otherwise whether it was to be released upon a rollback as well.
+     */
+    private Boolean takePendingRelease(long flightId, int seat) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+        return (Boolean) TransactionSynchronizationManager.unbindResourceIfPossible(new PendingSeatRelease(flightId, seat));
+    }
+
+    private void releaseNow(long flightId, int seat) {
+        var seatMap = seatMapCache.getIfPresent(flightId);
+        if (null != seatMap && seatMap.contains(seat)) {
+            seatMap.release(seat);
+        }
+    }
+
+    private record PendingSeatRelease(long flightId, int seat) {
+    }
+}
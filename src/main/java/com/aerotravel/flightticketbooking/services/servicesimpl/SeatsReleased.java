@@ -0,0 +1,7 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+/**
+ * Seats given back on a flight, or added to it by a bigger aircraft, within the transaction publishing it.
+ */
+record SeatsReleased(long flightId) {
+}
@@ -4,8 +4,10 @@ import com.aerotravel.flightticketbooking.model.Role;
 import com.aerotravel.flightticketbooking.model.User;
 import com.aerotravel.flightticketbooking.repository.RoleRepository;
 import com.aerotravel.flightticketbooking.repository.UserRepository;
+import com.aerotravel.flightticketbooking.security.TokenVersionRegistry;
 import com.aerotravel.flightticketbooking.services.UserDataInitializationService;
 import com.aerotravel.flightticketbooking.services.UserService;
+import com.aerotravel.flightticketbooking.services.cache.CurrentUserCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -34,15 +36,20 @@ public class UserServiceImpl extends AbstractEntityServiceImpl<User> implements
     private final RoleRepository roleRepository;
     private final BCryptPasswordEncoder passwordEncoder;
     private final UserDataInitializationService userDataInitializationService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final CurrentUserCache currentUserCache;
     private final String[] sortBy = new String[]{"username"};
 
     @Autowired
     public UserServiceImpl(UserRepository userRepository, RoleRepository roleRepository,
-                          BCryptPasswordEncoder passwordEncoder, UserDataInitializationService userDataInitializationService) {
+                          BCryptPasswordEncoder passwordEncoder, UserDataInitializationService userDataInitializationService,
+                          TokenVersionRegistry tokenVersionRegistry, CurrentUserCache currentUserCache) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.userDataInitializationService = userDataInitializationService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.currentUserCache = currentUserCache;
     }
 
     private static Collection<? extends GrantedAuthority> getAuthorities(User user) {
@@ -85,6 +92,7 @@ public class UserServiceImpl extends AbstractEntityServiceImpl<User> implements
         user.setCurrentRole("ROLE_USER"); // Default to USER role
 
         User savedUser = userRepository.save(user);
+        currentUserCache.invalidate(savedUser.getUsername());
 
         // Initialize sample data for the new user
         try {
@@ -107,21 +115,44 @@ public class UserServiceImpl extends AbstractEntityServiceImpl<User> implements
         return userRepository.existsByEmail(email);
     }
 
+    @Override
+    public User save(User user) {
+        User saved = super.save(user);
+        currentUserCache.invalidate(saved.getUsername());
+        return saved;
+    }
+
+    @Override
+    public void deleteById(Long entityId) {
+        userRepository.findById(entityId).ifPresent(user -> currentUserCache.invalidate(user.getUsername()));
+        super.deleteById(entityId);
+    }
+
     @Override
     public User getCurrentUser() {
+        // Called several times per request, e.g. for each owned entity looked up.
+        return currentUserCache.get(getCurrentUsername(), this::loadCurrentUser);
+    }
+
+    private User loadCurrentUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Current user not found in database"));
+    }
+
+    @Override
+    public String getCurrentUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new RuntimeException("No authenticated user found");
         }
 
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Current user not found in database"));
+        return authentication.getName();
     }
 
     @Override
     public User switchUserRole(String roleName) {
-        User currentUser = getCurrentUser();
+        // Loaded afresh: the cached current user is detached and shared, so it is not modified.
+        User currentUser = loadCurrentUser(getCurrentUsername());
 
         // Validate the role exists and user has access to it
         if (!canSwitchToRole(roleName)) {
@@ -130,7 +161,11 @@ public class UserServiceImpl extends AbstractEntityServiceImpl<User> implements
 
         // Update the current role in database
         currentUser.setCurrentRole(roleName);
+        // The role is a claim of the issued tokens, so they are revoked; a refresh issues one with the new role.
+        currentUser.setTokenVersion(currentUser.getTokenVersion() + 1);
         User updatedUser = userRepository.save(currentUser);
+        tokenVersionRegistry.onTokenVersionChanged(updatedUser.getId(), updatedUser.getTokenVersion());
+        currentUserCache.invalidate(updatedUser.getUsername());
 
         // Update the Spring Security context with new authorities
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
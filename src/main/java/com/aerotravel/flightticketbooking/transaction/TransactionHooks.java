@@ -0,0 +1,56 @@
+package com.aerotravel.flightticketbooking.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs actions once the current transaction completes, e.g. to update in-memory state only when the change commits.
+ * Outside a transaction there is nothing to wait for: the change is as good as committed and cannot be rolled back.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * Runs the action once the transaction commits, right away without a transaction.
+     */
+    public static void afterCommit(Runnable action) {
+        afterCompletion(TransactionSynchronization.STATUS_COMMITTED, action);
+    }
+
+    /**
+     * Runs the action once the transaction rolls back, never without a transaction.
+     */
+    public static void afterRollback(Runnable action) {
+        afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK, action);
+    }
+
+    /**
+     * Runs the action right away and again once the transaction commits, e.g. to invalidate a cache
+     * which may be refilled from the uncommitted state meanwhile.
+     */
+    public static void nowAndAfterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(action);
+        }
+    }
+
+    private static void afterCompletion(int status, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (TransactionSynchronization.STATUS_COMMITTED == status) {
+                action.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int completionStatus) {
+                if (completionStatus == status) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
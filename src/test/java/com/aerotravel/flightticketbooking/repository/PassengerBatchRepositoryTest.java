@@ -0,0 +1,77 @@
+package com.aerotravel.flightticketbooking.repository;
+
+import com.aerotravel.flightticketbooking.model.Flight;
+import com.aerotravel.flightticketbooking.model.Passenger;
+import com.aerotravel.flightticketbooking.model.User;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+public class PassengerBatchRepositoryTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PassengerBatchRepository passengerBatchRepository = new PassengerBatchRepository(jdbcTemplate);
+
+    @Test
+    public void insertAll_bindsEveryColumn() throws Exception {
+        var passenger = passenger(12);
+
+        var ps = bind(passenger);
+
+        verify(ps).setString(1, "John");
+        verify(ps).setString(2, "Doe");
+        verify(ps).setString(3, "+100");
+        verify(ps).setString(4, "P1");
+        verify(ps).setString(5, "john@doe.com");
+        verify(ps).setString(6, "Main st. 1");
+        verify(ps).setObject(7, 12, Types.INTEGER);
+        verify(ps).setString(8, "ABC123");
+        verify(ps).setLong(9, 7L);
+        verify(ps).setLong(10, 3L);
+    }
+
+    @Test
+    public void insertAll_noSeat_bindsNull() throws Exception {
+        var ps = bind(passenger(null));
+
+        verify(ps).setObject(7, null, Types.INTEGER);
+    }
+
+    private PreparedStatement bind(Passenger passenger) throws Exception {
+        var passengers = List.of(passenger);
+        passengerBatchRepository.insertAll(passengers);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Passenger>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("insert into passenger"), eq(passengers), eq(50), setter.capture());
+
+        var ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, passenger);
+        return ps;
+    }
+
+    private static Passenger passenger(Integer seatNumber) {
+        return Passenger.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .phoneNumber("+100")
+                .passportNumber("P1")
+                .email("john@doe.com")
+                .address("Main st. 1")
+                .seatNumber(seatNumber)
+                .bookingReference("ABC123")
+                .flight(Flight.builder().flightId(7).build())
+                .owner(User.builder().id(3L).build())
+                .build();
+    }
+}
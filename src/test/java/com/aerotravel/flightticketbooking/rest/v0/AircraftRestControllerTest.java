@@ -3,6 +3,7 @@ package com.aerotravel.flightticketbooking.rest.v0;
 import com.aerotravel.flightticketbooking.model.Aircraft;
 import com.aerotravel.flightticketbooking.model.dto.AircraftDto;
 import com.aerotravel.flightticketbooking.services.AircraftService;
+import com.aerotravel.flightticketbooking.services.cache.IdempotencyStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.modelmapper.ModelMapper;
@@ -11,14 +12,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -145,6 +152,40 @@ public class AircraftRestControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void importViaFile_sameKeyRetried_importedOnce() throws Exception {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(importRequest("import-once", "Delf,D-11,2"))
+                    .andExpect(status().isOk());
+        }
+
+        verify(service, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    public void importViaFile_sameKeyOtherContent_conflict() throws Exception {
+        mockMvc.perform(importRequest("import-conflict", "Delf,D-11,2"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(importRequest("import-conflict", "Delf,D-12,8"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void importViaFile_tooLongKey_badRequest() throws Exception {
+        mockMvc.perform(importRequest("k".repeat(256), "Delf,D-11,2"))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).saveAll(anyList());
+    }
+
+    private MockHttpServletRequestBuilder importRequest(String idempotencyKey, String record) {
+        var csv = "manufacturer,model,numberOfSeats\n" + record;
+        return MockMvcRequestBuilders.multipart(API_MAPPING + "/import")
+                .file(new MockMultipartFile("file", "aircraft.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)))
+                .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+    }
+
     private Aircraft buildAircraft(long id, String model) {
         return Aircraft.builder()
                 .aircraftId(id)
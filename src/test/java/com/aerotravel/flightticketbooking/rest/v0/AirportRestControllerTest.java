@@ -1,6 +1,8 @@
 package com.aerotravel.flightticketbooking.rest.v0;
 
+import com.aerotravel.flightticketbooking.exception.InvalidCursorException;
 import com.aerotravel.flightticketbooking.model.Airport;
+import com.aerotravel.flightticketbooking.model.dto.CursorPage;
 import com.aerotravel.flightticketbooking.services.AirportService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -107,6 +109,51 @@ class AirportRestControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void findByCursor_success() throws Exception {
+        var airport2 = buildAirport(5658, "BB5659");
+        when(service.getCursorPage("abc", 2)).thenReturn(new CursorPage<>(List.of(airport, airport2), "def"));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_MAPPING + "/cursor")
+                        .param("cursor", "abc")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].airportCode", is(airport.getAirportCode())))
+                .andExpect(jsonPath("$.content[1].airportCode", is(airport2.getAirportCode())))
+                .andExpect(jsonPath("$.nextCursor", is("def")));
+    }
+
+    @Test
+    public void findByCursor_lastPage_noNextCursor() throws Exception {
+        when(service.getCursorPage(null, 20)).thenReturn(new CursorPage<>(List.of(airport), null));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_MAPPING + "/cursor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    public void findByCursor_malformedCursor_badRequest() throws Exception {
+        when(service.getCursorPage("garbage", 20)).thenThrow(new InvalidCursorException("Malformed cursor: garbage"));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_MAPPING + "/cursor")
+                        .param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void findByCursor_sizeOutOfRange_badRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_MAPPING + "/cursor")
+                        .param("size", "101"))
+                .andExpect(status().isBadRequest());
+    }
+
     private Airport buildAirport(long id, String code) {
         return Airport.builder()
                 .airportId(id)
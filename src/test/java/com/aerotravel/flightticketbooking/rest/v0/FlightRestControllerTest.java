@@ -4,9 +4,11 @@ import com.aerotravel.flightticketbooking.model.Aircraft;
 import com.aerotravel.flightticketbooking.model.Airport;
 import com.aerotravel.flightticketbooking.model.Flight;
 import com.aerotravel.flightticketbooking.model.Passenger;
+import com.aerotravel.flightticketbooking.model.dto.FareCalendarDayDto;
 import com.aerotravel.flightticketbooking.model.dto.FlightDto;
 import com.aerotravel.flightticketbooking.services.AircraftService;
 import com.aerotravel.flightticketbooking.services.AirportService;
+import com.aerotravel.flightticketbooking.services.BookingService;
 import com.aerotravel.flightticketbooking.services.FlightService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Disabled;
@@ -25,11 +27,14 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -48,6 +53,8 @@ class FlightRestControllerTest {
     private AircraftService aircraftService;
     @MockBean
     private AirportService airportService;
+    @MockBean
+    private BookingService bookingService;
 
     @Test
     public void findAll_success() throws Exception {
@@ -65,6 +72,33 @@ class FlightRestControllerTest {
                 .andExpect(jsonPath("$[1].flightNumber", is(entity2.getFlightNumber())));
     }
 
+    @Test
+    public void streamAll_writesLeanDtosOnePerLine() throws Exception {
+        var dto = toDto(entity);
+        dto.setPassengerIds(List.of(11L, 12L));
+        var dto2 = toDto(buildRecord(4041, "YQ4041"));
+        Mockito.doAnswer(invocation -> {
+            Consumer<FlightDto> consumer = invocation.getArgument(0);
+            consumer.accept(dto);
+            consumer.accept(dto2);
+            return null;
+        }).when(service).forEachCurrentUserFlightDto(Mockito.any());
+
+        var body = mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_MAPPING + "/stream"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(AbstractRestController.APPLICATION_NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString();
+
+        var lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(entity.getFlightNumber(), mapper.readTree(lines[0]).get("flightNumber").asText());
+        assertEquals("[11,12]", mapper.readTree(lines[0]).get("passengerIds").toString());
+        assertEquals("YQ4041", mapper.readTree(lines[1]).get("flightNumber").asText());
+        // The entities and their lazy passengers are not touched.
+        Mockito.verify(service, Mockito.never()).forEach(Mockito.any());
+    }
+
     @Test
     public void findById_success() throws Exception {
         when(service.getById(entity.getFlightId())).thenReturn(entity);
@@ -145,8 +179,8 @@ class FlightRestControllerTest {
 
     @Test
     void findByFlightNumber_success() throws Exception {
-        List<Flight> records = List.of(entity, buildRecord(144145, entity.getFlightNumber()));
-        when(service.getAllByByFlightNumber(entity.getFlightNumber())).thenReturn(records);
+        List<FlightDto> records = List.of(toDto(entity), toDto(buildRecord(144145, entity.getFlightNumber())));
+        when(service.getCurrentUserFlightDtosByFlightNumber(entity.getFlightNumber())).thenReturn(records);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get(API_MAPPING + "/number/" + entity.getFlightNumber())
@@ -162,6 +196,70 @@ class FlightRestControllerTest {
                 .andExpect(jsonPath("$[0].arrivalDate", notNullValue()));
     }
 
+    @Test
+    void findByAreasAndDepartureTime_success() throws Exception {
+        var day = LocalDate.of(2030, 5, 17);
+        when(service.getCurrentUserFlightDtosByAreas("London", "Spain", day))
+                .thenReturn(List.of(toDto(entity), toDto(buildRecord(4041, "YQ4041"))));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_MAPPING + "/search/area")
+                        .param("departureArea", "London")
+                        .param("destinationArea", "Spain")
+                        .param("departureDate", "2030-05-17"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].flightNumber", is(entity.getFlightNumber())))
+                .andExpect(jsonPath("$[1].flightNumber", is("YQ4041")));
+    }
+
+    @Test
+    void findByAreasAndDepartureTime_blankArea_badRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_MAPPING + "/search/area")
+                        .param("departureArea", " ")
+                        .param("destinationArea", "Spain")
+                        .param("departureDate", "2030-05-17"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findFareCalendar_success() throws Exception {
+        var depAirport = entity.getDepartureAirport();
+        var destAirport = entity.getDestinationAirport();
+        var day = LocalDate.of(2030, 5, 17);
+        when(airportService.getCurrentUserAirportByCode(depAirport.getAirportCode())).thenReturn(depAirport);
+        when(airportService.getCurrentUserAirportByCode(destAirport.getAirportCode())).thenReturn(destAirport);
+        when(service.getCurrentUserFareCalendar(depAirport, destAirport, day, 1)).thenReturn(List.of(
+                FareCalendarDayDto.builder().departureDate(day.minusDays(1)).build(),
+                FareCalendarDayDto.builder().departureDate(day).cheapestFlightCharge(99.5).flightCount(2).build(),
+                FareCalendarDayDto.builder().departureDate(day.plusDays(1)).build()));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_MAPPING + "/search/calendar")
+                        .param("departureAirportCode", depAirport.getAirportCode())
+                        .param("destinationAirportCode", destAirport.getAirportCode())
+                        .param("departureDate", "2030-05-17")
+                        .param("flexDays", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].cheapestFlightCharge", nullValue()))
+                .andExpect(jsonPath("$[0].flightCount", is(0)))
+                .andExpect(jsonPath("$[1].cheapestFlightCharge", is(99.5)))
+                .andExpect(jsonPath("$[1].flightCount", is(2)));
+    }
+
+    @Test
+    void findFareCalendar_tooManyFlexDays_badRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_MAPPING + "/search/calendar")
+                        .param("departureAirportCode", "AAZZ")
+                        .param("destinationAirportCode", "ZZXX")
+                        .param("departureDate", "2030-05-17")
+                        .param("flexDays", "16"))
+                .andExpect(status().isBadRequest());
+    }
+
     //TODO(L.E.) Implement the tests.
     @Disabled("Test - Not yet implemented.")
     @Test
@@ -181,7 +279,7 @@ class FlightRestControllerTest {
                 .passengerId(170178)
                 .build();
         flight.setPassengers(List.of(passenger1, passenger2));
-        when(service.getById(flight.getFlightId())).thenReturn(flight);
+        when(bookingService.getBooking(flight.getFlightId(), passenger2.getPassengerId())).thenReturn(passenger2);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get(API_MAPPING + "/book/verify")
@@ -0,0 +1,105 @@
+package com.aerotravel.flightticketbooking.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.Map;
+
+import static com.aerotravel.flightticketbooking.security.JwtTokenUtil.CLAIM_ROLE;
+import static com.aerotravel.flightticketbooking.security.JwtTokenUtil.CLAIM_TOKEN_VERSION;
+import static com.aerotravel.flightticketbooking.security.JwtTokenUtil.CLAIM_USER_ID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class JwtAuthenticationFilterTest {
+
+    private static final String JWT = "a.b.c";
+
+    private final JwtTokenUtil jwtTokenUtil = mock(JwtTokenUtil.class);
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final TokenVersionRegistry tokenVersionRegistry = mock(TokenVersionRegistry.class);
+    private final TokenDenylist tokenDenylist = mock(TokenDenylist.class);
+
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenUtil, userDetailsService,
+            tokenVersionRegistry, tokenDenylist);
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void tokenWithUserClaims_authenticatedWithoutLoadingTheUser() throws Exception {
+        when(jwtTokenUtil.verify(JWT)).thenReturn(tokenWithClaims(3));
+        when(tokenVersionRegistry.isCurrent(7, 3)).thenReturn(true);
+
+        var chain = filter();
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(new TokenPrincipal(7, "alice", "ROLE_AGENT", 3), authentication.getPrincipal());
+        assertEquals("alice", authentication.getName());
+        assertEquals(AuthorityUtils.createAuthorityList("ROLE_AGENT"), authentication.getAuthorities());
+        verifyNoInteractions(userDetailsService);
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    public void tokenOfAnOlderVersion_notAuthenticated() throws Exception {
+        when(jwtTokenUtil.verify(JWT)).thenReturn(tokenWithClaims(2));
+        when(tokenVersionRegistry.isCurrent(7, 2)).thenReturn(false);
+
+        var chain = filter();
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService);
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    public void denylistedToken_notAuthenticated() throws Exception {
+        when(jwtTokenUtil.verify(JWT)).thenReturn(tokenWithClaims(3));
+        when(tokenDenylist.isRevoked("jti-1")).thenReturn(true);
+
+        filter();
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(tokenVersionRegistry, userDetailsService);
+    }
+
+    @Test
+    public void tokenIssuedBeforeTheClaims_authenticatedByLoadingTheUser() throws Exception {
+        var token = new VerifiedToken("alice", null, null, Map.of("sub", "alice"));
+        var userDetails = User.withUsername("alice").password("x").authorities("ROLE_AGENT").build();
+        when(jwtTokenUtil.verify(JWT)).thenReturn(token);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(userDetails);
+        when(jwtTokenUtil.isTokenValid(token, userDetails)).thenReturn(true);
+
+        filter();
+
+        assertSame(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verifyNoInteractions(tokenVersionRegistry);
+    }
+
+    private MockFilterChain filter() throws Exception {
+        var request = new MockHttpServletRequest("GET", "/api/v0/flights");
+        request.setServletPath("/api/v0/flights");
+        request.addHeader("Authorization", "Bearer " + JWT);
+        var chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    private static VerifiedToken tokenWithClaims(int tokenVersion) {
+        return new VerifiedToken("alice", null, null, Map.of("sub", "alice", "jti", "jti-1",
+                CLAIM_USER_ID, 7L, CLAIM_ROLE, "ROLE_AGENT", CLAIM_TOKEN_VERSION, tokenVersion));
+    }
+}
@@ -0,0 +1,44 @@
+package com.aerotravel.flightticketbooking.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.Map;
+
+import static com.aerotravel.flightticketbooking.security.JwtTokenUtil.CLAIM_ROLE;
+import static com.aerotravel.flightticketbooking.security.JwtTokenUtil.CLAIM_TOKEN_VERSION;
+import static com.aerotravel.flightticketbooking.security.JwtTokenUtil.CLAIM_USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TokenPrincipalTest {
+
+    @Test
+    public void of_tokenWithUserClaims_principalFromTheClaimsAlone() {
+        var token = token("alice", Map.of("sub", "alice", CLAIM_USER_ID, 7, CLAIM_ROLE, "ROLE_AGENT", CLAIM_TOKEN_VERSION, 3));
+
+        var principal = TokenPrincipal.of(token);
+
+        assertEquals(new TokenPrincipal(7, "alice", "ROLE_AGENT", 3), principal);
+        assertEquals("alice", principal.getName());
+        assertEquals(AuthorityUtils.createAuthorityList("ROLE_AGENT"), principal.getAuthorities());
+    }
+
+    @Test
+    public void of_tokenIssuedBeforeTheClaims_null() {
+        assertNull(TokenPrincipal.of(token("alice", Map.of("sub", "alice"))));
+        assertNull(TokenPrincipal.of(token("alice", Map.of("sub", "alice", CLAIM_USER_ID, 7L, CLAIM_ROLE, "ROLE_AGENT"))));
+    }
+
+    @Test
+    public void of_claimsOfTheWrongType_null() {
+        assertNull(TokenPrincipal.of(token("alice",
+                Map.of("sub", "alice", CLAIM_USER_ID, "7", CLAIM_ROLE, "ROLE_AGENT", CLAIM_TOKEN_VERSION, 3))));
+        assertNull(TokenPrincipal.of(token(null,
+                Map.of(CLAIM_USER_ID, 7L, CLAIM_ROLE, "ROLE_AGENT", CLAIM_TOKEN_VERSION, 3))));
+    }
+
+    private static VerifiedToken token(String subject, Map<String, Object> claims) {
+        return new VerifiedToken(subject, null, null, claims);
+    }
+}
@@ -0,0 +1,115 @@
+package com.aerotravel.flightticketbooking.security;
+
+import com.aerotravel.flightticketbooking.model.projection.UserTokenState;
+import com.aerotravel.flightticketbooking.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class TokenVersionRegistryTest {
+
+    private static final long USER_ID = 7;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    public void isCurrent_readsTheDatabaseOncePerTtl() {
+        when(userRepository.findTokenStateById(USER_ID)).thenReturn(Optional.of(state(3, true)));
+        var registry = new TokenVersionRegistry(userRepository, 10, Duration.ofMinutes(1));
+
+        assertTrue(registry.isCurrent(USER_ID, 3));
+        assertTrue(registry.isCurrent(USER_ID, 3));
+        assertFalse(registry.isCurrent(USER_ID, 2));
+        verify(userRepository, times(1)).findTokenStateById(USER_ID);
+    }
+
+    @Test
+    public void isCurrent_expired_readsTheDatabaseAgain() {
+        when(userRepository.findTokenStateById(USER_ID))
+                .thenReturn(Optional.of(state(3, true)), Optional.of(state(4, true)));
+        var registry = new TokenVersionRegistry(userRepository, 10, Duration.ZERO);
+
+        assertTrue(registry.isCurrent(USER_ID, 3));
+        assertFalse(registry.isCurrent(USER_ID, 3));
+        verify(userRepository, times(2)).findTokenStateById(USER_ID);
+    }
+
+    @Test
+    public void isCurrent_inactiveOrUnknownUser_false() {
+        when(userRepository.findTokenStateById(USER_ID)).thenReturn(Optional.of(state(3, false)));
+        when(userRepository.findTokenStateById(8L)).thenReturn(Optional.empty());
+        var registry = new TokenVersionRegistry(userRepository, 10, Duration.ofMinutes(1));
+
+        assertFalse(registry.isCurrent(USER_ID, 3));
+        assertFalse(registry.isCurrent(8L, 0));
+    }
+
+    @Test
+    public void isCurrent_full_evictsTheLeastRecentlyUsedUser() {
+        when(userRepository.findTokenStateById(anyLong())).thenReturn(Optional.of(state(3, true)));
+        var registry = new TokenVersionRegistry(userRepository, 2, Duration.ofMinutes(1));
+
+        registry.isCurrent(1, 3);
+        registry.isCurrent(2, 3);
+        registry.isCurrent(1, 3);
+        registry.isCurrent(3, 3);
+        assertEquals(2, registry.size());
+
+        registry.isCurrent(1, 3);
+        registry.isCurrent(2, 3);
+        verify(userRepository, times(1)).findTokenStateById(1L);
+        verify(userRepository, times(2)).findTokenStateById(2L);
+    }
+
+    @Test
+    public void onTokenVersionChanged_revokesTheOlderTokensOnceCommitted() {
+        when(userRepository.findTokenStateById(USER_ID)).thenReturn(Optional.of(state(3, true)));
+        var registry = new TokenVersionRegistry(userRepository, 10, Duration.ofMinutes(1));
+        assertTrue(registry.isCurrent(USER_ID, 3));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            registry.onTokenVersionChanged(USER_ID, 4);
+            assertTrue(registry.isCurrent(USER_ID, 3));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(registry.isCurrent(USER_ID, 3));
+        assertTrue(registry.isCurrent(USER_ID, 4));
+        verify(userRepository, times(1)).findTokenStateById(USER_ID);
+    }
+
+    @Test
+    public void onTokenVersionChanged_rolledBack_olderTokensStillHonoured() {
+        when(userRepository.findTokenStateById(USER_ID)).thenReturn(Optional.of(state(3, true)));
+        var registry = new TokenVersionRegistry(userRepository, 10, Duration.ofMinutes(1));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            registry.onTokenVersionChanged(USER_ID, 4);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(registry.isCurrent(USER_ID, 3));
+        assertFalse(registry.isCurrent(USER_ID, 4));
+    }
+
+    private static UserTokenState state(int tokenVersion, boolean active) {
+        return new UserTokenState(tokenVersion, active, true, true);
+    }
+}
@@ -0,0 +1,98 @@
+package com.aerotravel.flightticketbooking.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class VerifiedTokenCacheTest {
+
+    private static final Instant NOW = Instant.parse("2030-05-17T10:00:00Z");
+
+    private final MutableClock clock = new MutableClock();
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    public void get_sameToken_verifiedOnce() {
+        var cache = new VerifiedTokenCache(10, clock);
+
+        var first = cache.get("a.b.c", t -> verify("alice", 60));
+        var second = cache.get("a.b.c", t -> verify("alice", 60));
+
+        assertSame(first, second);
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    public void get_expiredToken_verifiedAgain() {
+        var cache = new VerifiedTokenCache(10, clock);
+        cache.get("a.b.c", t -> verify("alice", 60));
+
+        clock.now = NOW.plusSeconds(60);
+        assertThrows(IllegalStateException.class, () -> cache.get("a.b.c", t -> {
+            throw new IllegalStateException("expired");
+        }));
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    public void get_invalidToken_notCached() {
+        var cache = new VerifiedTokenCache(10, clock);
+
+        assertThrows(IllegalStateException.class, () -> cache.get("x.y.z", t -> {
+            throw new IllegalStateException("forged");
+        }));
+        cache.get("x.y.z", t -> verify("mallory", 60));
+
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    public void get_full_evictsExpiredThenLeastRecentlyUsed() {
+        var cache = new VerifiedTokenCache(2, clock);
+        cache.get("short", t -> verify("alice", 10));
+        cache.get("long", t -> verify("bob", 100));
+        clock.now = NOW.plusSeconds(10);
+
+        cache.get("third", t -> verify("carol", 100));
+        cache.get("long", t -> verify("bob", 100));
+        assertEquals(3, verifications.get());
+
+        clock.now = NOW.plusSeconds(11);
+        cache.get("fourth", t -> verify("dave", 100));
+        cache.get("third", t -> verify("carol", 100));
+        assertEquals(5, verifications.get());
+        assertEquals(2, cache.getStats().get("size"));
+    }
+
+    private VerifiedToken verify(String subject, long ttlSeconds) {
+        verifications.incrementAndGet();
+        return new VerifiedToken(subject, clock.now, clock.now.plusSeconds(ttlSeconds), Map.of("sub", subject));
+    }
+
+    private static class MutableClock extends Clock {
+        Instant now = NOW;
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -57,11 +57,11 @@ public class AircraftServiceTest {
     public void getById_success() {
         long id = 5960;
         var aircraft = new Aircraft(id, "Yak", "242", 160);
-        when(aircraftRepository.findById(id)).thenReturn(Optional.of(aircraft));
+        when(aircraftRepository.findByIdAndOwnerId(eq(id), anyLong())).thenReturn(Optional.of(aircraft));
 
         var actual = aircraftService.getById(id);
 
-        verify(aircraftRepository, times(1)).findById(id);
+        verify(aircraftRepository, times(1)).findByIdAndOwnerId(eq(id), anyLong());
         assertEquals(aircraft, actual);
     }
 
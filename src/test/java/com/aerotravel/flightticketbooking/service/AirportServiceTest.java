@@ -0,0 +1,57 @@
+package com.aerotravel.flightticketbooking.service;
+
+import com.aerotravel.flightticketbooking.model.Airport;
+import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.repository.AirportRepository;
+import com.aerotravel.flightticketbooking.services.UserService;
+import com.aerotravel.flightticketbooking.services.cache.AirportDirectory;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import com.aerotravel.flightticketbooking.services.servicesimpl.AirportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AirportServiceTest {
+
+    private final AirportRepository airportRepository = mock(AirportRepository.class);
+    private final UserService userService = mock(UserService.class);
+    private final AirportDirectory airportDirectory = mock(AirportDirectory.class);
+    private final AirportServiceImpl airportService = new AirportServiceImpl(airportRepository, userService,
+            mock(FlightSearchCache.class), airportDirectory);
+    private final User user = new User();
+
+    @BeforeEach
+    public void setUp() {
+        user.setUsername("john");
+        when(userService.getCurrentUsername()).thenReturn("john");
+        when(userService.getCurrentUser()).thenReturn(user);
+    }
+
+    @Test
+    public void getCurrentUserAirportByCode_known_referenceFromTheDirectory() {
+        var reference = Airport.builder().airportId(5L).airportCode("LHR").build();
+        when(airportDirectory.findAirportId("john", "LHR")).thenReturn(Optional.of(5L));
+        when(airportRepository.existsByAirportIdAndAirportCode(5L, "LHR")).thenReturn(true);
+        when(airportRepository.getReferenceById(5L)).thenReturn(reference);
+
+        assertSame(reference, airportService.getCurrentUserAirportByCode("LHR"));
+        verify(airportRepository, never()).findByOwnerAndAirportCode(any(), any());
+        verify(airportDirectory, never()).evictOwner(any());
+    }
+
+    @Test
+    public void getCurrentUserAirportByCode_staleDirectory_reloaded() {
+        var airport = Airport.builder().airportId(6L).airportCode("LHR").build();
+        when(airportDirectory.findAirportId("john", "LHR")).thenReturn(Optional.of(5L));
+        when(airportRepository.existsByAirportIdAndAirportCode(5L, "LHR")).thenReturn(false);
+        when(airportRepository.findByOwnerAndAirportCode(user, "LHR")).thenReturn(Optional.of(airport));
+
+        assertSame(airport, airportService.getCurrentUserAirportByCode("LHR"));
+        verify(airportRepository, never()).getReferenceById(any());
+        verify(airportDirectory, atLeastOnce()).evictOwner("john");
+    }
+}
@@ -0,0 +1,39 @@
+package com.aerotravel.flightticketbooking.service;
+
+import com.aerotravel.flightticketbooking.model.projection.AirportSummary;
+import com.aerotravel.flightticketbooking.services.search.AirportSuggestIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AirportSuggestIndexTest {
+
+    private final AirportSuggestIndex index = AirportSuggestIndex.of(List.of(
+            new AirportSummary(1, "SAN", "San Diego International", "San Diego", "USA"),
+            new AirportSummary(2, "SFO", "San Francisco International", "San Francisco", "USA"),
+            new AirportSummary(3, "GRU", "Guarulhos International", "São Paulo", "Brazil"),
+            new AirportSummary(4, "SA", "Sabiha Gökçen", "Istanbul", "Turkey")));
+
+    @Test
+    public void suggest_ranksCodesBeforeNamesAndCities() {
+        assertEquals(List.of(1L, 2L), ids(index.suggest("san", 10)));
+        assertEquals(List.of(4L, 1L, 2L, 3L), ids(index.suggest("sa", 10)));
+        assertEquals(List.of(4L), ids(index.suggest("sa", 1)));
+    }
+
+    @Test
+    public void suggest_matchesFurtherWordsIgnoringAccents() {
+        assertEquals(List.of(3L), ids(index.suggest("paulo", 10)));
+        assertEquals(List.of(3L), ids(index.suggest("Sao P", 10)));
+        assertEquals(List.of(4L), ids(index.suggest("gokcen", 10)));
+        assertTrue(index.suggest("  ", 10).isEmpty());
+        assertTrue(index.suggest("xyz", 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<AirportSummary> airports) {
+        return airports.stream().map(AirportSummary::airportId).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package com.aerotravel.flightticketbooking.service;
+
+import com.aerotravel.flightticketbooking.model.projection.FlightLeg;
+import com.aerotravel.flightticketbooking.services.search.ConnectionSearch;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectionSearchTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 17);
+    private static final long AAA = 1, BBB = 2, CCC = 3, DDD = 4;
+
+    @Test
+    public void search_directAndConnectingFlights_earliestArrivalFirst() {
+        var legs = List.of(
+                leg(10, AAA, CCC, "08:00", "18:00", 300),
+                leg(11, AAA, BBB, "08:00", "10:00", 100),
+                leg(12, BBB, CCC, "11:30", "13:00", 100));
+
+        var actual = ConnectionSearch.of(legs).search(AAA, CCC, DAY, 3, 5, 60);
+
+        assertEquals(2, actual.size());
+        assertEquals(1, actual.get(0).getConnections());
+        assertEquals(List.of(11L, 12L), actual.get(0).getLegs().stream().map(l -> l.getFlightId()).toList());
+        assertEquals(200, actual.get(0).getTotalCharge(), 0.001);
+        assertEquals(300, actual.get(0).getDurationMinutes());
+        assertEquals(0, actual.get(1).getConnections());
+    }
+
+    @Test
+    public void search_tooShortConnection_isSkipped() {
+        var legs = List.of(
+                leg(11, AAA, BBB, "08:00", "10:00", 100),
+                leg(12, BBB, CCC, "10:30", "12:00", 100));
+
+        assertTrue(ConnectionSearch.of(legs).search(AAA, CCC, DAY, 3, 5, 60).isEmpty());
+        assertEquals(1, ConnectionSearch.of(legs).search(AAA, CCC, DAY, 3, 5, 30).size());
+    }
+
+    @Test
+    public void search_respectsMaxLegsAndLimit() {
+        var legs = List.of(
+                leg(11, AAA, BBB, "06:00", "07:00", 10),
+                leg(12, BBB, CCC, "08:00", "09:00", 10),
+                leg(13, CCC, DDD, "10:00", "11:00", 10),
+                leg(14, AAA, DDD, "12:00", "15:00", 50),
+                leg(15, AAA, DDD, "16:00", "19:00", 50));
+
+        var search = ConnectionSearch.of(legs);
+
+        assertEquals(2, search.search(AAA, DDD, DAY, 2, 5, 30).size());
+        assertEquals(3, search.search(AAA, DDD, DAY, 3, 5, 30).size());
+        assertEquals(List.of(11L, 12L, 13L), search.search(AAA, DDD, DAY, 3, 1, 30).get(0).getLegs().stream()
+                .map(l -> l.getFlightId()).toList());
+    }
+
+    private static FlightLeg leg(long id, long from, long to, String departure, String arrival, double charge) {
+        return new FlightLeg(id, "FL" + id, from, "A" + from, to, "A" + to,
+                DAY, departure, DAY, arrival, charge);
+    }
+}
@@ -0,0 +1,62 @@
+package com.aerotravel.flightticketbooking.service;
+
+import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.services.cache.CurrentUserCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CurrentUserCacheTest {
+
+    @Test
+    public void get_cachesUntilTheUserIsInvalidated() {
+        var cache = new CurrentUserCache(100, Duration.ofMinutes(1));
+        var loads = new AtomicInteger();
+
+        var first = cache.get("alice", name -> load(loads, name));
+        assertSame(first, cache.get("alice", name -> load(loads, name)));
+        cache.get("bob", name -> load(loads, name));
+        int afterFirstLoads = loads.get();
+        assertEquals(2, afterFirstLoads);
+
+        cache.invalidate("alice");
+        cache.get("alice", name -> load(loads, name));
+        cache.get("bob", name -> load(loads, name));
+        int afterInvalidation = loads.get();
+        assertEquals(3, afterInvalidation);
+    }
+
+    @Test
+    public void get_userChangedWhileLoading_isNotCached() {
+        var cache = new CurrentUserCache(100, Duration.ofMinutes(1));
+        var loads = new AtomicInteger();
+
+        cache.get("alice", name -> {
+            cache.invalidate(name);
+            return load(loads, name);
+        });
+        cache.get("alice", name -> load(loads, name));
+        int total = loads.get();
+        assertEquals(2, total);
+    }
+
+    @Test
+    public void get_expiredUser_isReloaded() {
+        var cache = new CurrentUserCache(100, Duration.ZERO);
+        var loads = new AtomicInteger();
+
+        cache.get("alice", name -> load(loads, name));
+        cache.get("alice", name -> load(loads, name));
+        int total = loads.get();
+        assertEquals(2, total);
+    }
+
+    private static User load(AtomicInteger loads, String username) {
+        loads.incrementAndGet();
+        return User.builder().username(username).build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.aerotravel.flightticketbooking.service;
+
+import com.aerotravel.flightticketbooking.model.dto.FlightDto;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlightSearchCacheTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 17);
+
+    @Test
+    public void get_cachesUntilTheFlightOrRouteChanges() {
+        var cache = new FlightSearchCache(100, Duration.ofMinutes(5));
+        var loads = new AtomicInteger();
+
+        cache.get(1, 10, 20, DAY, () -> load(loads, 100));
+        cache.get(1, 10, 20, DAY, () -> load(loads, 100));
+        assertEquals(1, loads.get());
+
+        cache.invalidateFlight(100);
+        cache.get(1, 10, 20, DAY, () -> load(loads, 100));
+        assertEquals(2, loads.get());
+
+        cache.invalidateRoute(1, 10, 20);
+        cache.get(1, 10, 20, DAY, () -> load(loads, 100));
+        assertEquals(3, loads.get());
+
+        // Other routes and owners are left alone.
+        cache.invalidateRoute(1, 10, 30);
+        cache.invalidateRoute(2, 10, 20);
+        cache.get(1, 10, 20, DAY, () -> load(loads, 100));
+        assertEquals(3, loads.get());
+        assertEquals(2L, cache.getStats().get("hits"));
+    }
+
+    @Test
+    public void get_evictsLeastRecentlyUsedOverMaxSize() {
+        var cache = new FlightSearchCache(2, Duration.ofMinutes(5));
+        var loads = new AtomicInteger();
+
+        cache.get(1, 1, 2, DAY, () -> load(loads, 1));
+        cache.get(1, 1, 3, DAY, () -> load(loads, 2));
+        cache.get(1, 1, 2, DAY, () -> load(loads, 1));
+        cache.get(1, 1, 4, DAY, () -> load(loads, 3));
+
+        assertEquals(1L, cache.getStats().get("evictions"));
+        cache.get(1, 1, 2, DAY, () -> load(loads, 1));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void get_changesToTheResultsAreNotCached() {
+        var cache = new FlightSearchCache(100, Duration.ofMinutes(5));
+        var loads = new AtomicInteger();
+
+        var loaded = cache.get(1, 10, 20, DAY, () -> load(loads, 100)).get(0);
+        loaded.setGate("A1");
+        loaded.getPassengerIds().add(7L);
+        var hit = cache.get(1, 10, 20, DAY, () -> load(loads, 100)).get(0);
+        hit.setGate("B2");
+
+        var again = cache.get(1, 10, 20, DAY, () -> load(loads, 100)).get(0);
+        assertEquals(1, loads.get());
+        assertNull(again.getGate());
+        assertTrue(again.getPassengerIds().isEmpty());
+    }
+
+    private static List<FlightDto> load(AtomicInteger loads, long flightId) {
+        loads.incrementAndGet();
+        return List.of(FlightDto.builder().flightId(flightId).build());
+    }
+}
@@ -0,0 +1,82 @@
+package com.aerotravel.flightticketbooking.service;
+
+import com.aerotravel.flightticketbooking.services.cache.HashedTimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashedTimingWheelTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> expired = new ArrayList<>();
+    private final HashedTimingWheel<String> wheel =
+            new HashedTimingWheel<>(Duration.ofSeconds(1), 8, expired::add, clock::get);
+
+    @Test
+    public void advance_expiresOnlyDueTimeouts() {
+        wheel.schedule("a", Duration.ofSeconds(2));
+        wheel.schedule("b", Duration.ofSeconds(5));
+
+        clock.set(SECOND);
+        assertEquals(0, wheel.advance());
+        clock.set(2 * SECOND);
+        assertEquals(1, wheel.advance());
+        assertEquals(List.of("a"), expired);
+        assertEquals(1, wheel.getPending());
+
+        clock.set(10 * SECOND);
+        wheel.advance();
+        assertEquals(List.of("a", "b"), expired);
+        assertEquals(0, wheel.getPending());
+    }
+
+    @Test
+    public void advance_keepsTimeoutsDueInLaterRevolutions() {
+        wheel.schedule("late", Duration.ofSeconds(20));
+
+        clock.set(12 * SECOND);
+        wheel.advance();
+        assertTrue(expired.isEmpty());
+
+        clock.set(20 * SECOND);
+        wheel.advance();
+        assertEquals(List.of("late"), expired);
+    }
+
+    @Test
+    public void cancel_preventsExpiry_andExpiryPreventsCancel() {
+        var cancelled = wheel.schedule("cancelled", Duration.ofSeconds(1));
+        var expiring = wheel.schedule("expiring", Duration.ofSeconds(1));
+
+        assertTrue(cancelled.cancel());
+        clock.set(SECOND);
+        wheel.advance();
+
+        assertEquals(List.of("expiring"), expired);
+        assertTrue(expiring.isExpired());
+        assertFalse(expiring.cancel());
+        assertEquals(0, wheel.getPending());
+    }
+
+    @Test
+    public void schedule_alreadyDue_expiresOnNextTick() {
+        clock.set(3 * SECOND);
+        wheel.advance();
+
+        wheel.schedule("now", Duration.ZERO);
+        wheel.advance();
+        assertTrue(expired.isEmpty());
+
+        clock.set(4 * SECOND);
+        wheel.advance();
+
+        assertEquals(List.of("now"), expired);
+    }
+}
@@ -0,0 +1,82 @@
+package com.aerotravel.flightticketbooking.service;
+
+import com.aerotravel.flightticketbooking.exception.IdempotencyConflictException;
+import com.aerotravel.flightticketbooking.exception.InvalidIdempotencyKeyException;
+import com.aerotravel.flightticketbooking.services.cache.IdempotencyStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(2, Duration.ofMinutes(5));
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    public void execute_sameKey_replaysFirstResponse() {
+        int first = store.execute("john", "Flight.book", "k1", "body", calls::incrementAndGet);
+        int retry = store.execute("john", "Flight.book", "k1", "body", calls::incrementAndGet);
+
+        assertEquals(1, first);
+        assertEquals(1, retry);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void execute_keyIsScopedByOwnerAndOperation() {
+        store.execute("john", "Flight.book", "k1", "body", calls::incrementAndGet);
+        store.execute("jane", "Flight.book", "k1", "body", calls::incrementAndGet);
+        store.execute("john", "Flight.create", "k1", "body", calls::incrementAndGet);
+
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void execute_noKey_alwaysRuns() {
+        store.execute("john", "Flight.book", null, "body", calls::incrementAndGet);
+        store.execute("john", "Flight.book", " ", "body", calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void execute_tooLongKey_isInvalid() {
+        var key = "k".repeat(256);
+
+        assertThrows(InvalidIdempotencyKeyException.class,
+                () -> store.execute("john", "Flight.book", key, "body", calls::incrementAndGet));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void execute_sameKeyDifferentRequest_isConflict() {
+        store.execute("john", "Flight.book", "k1", "body", calls::incrementAndGet);
+
+        assertThrows(IdempotencyConflictException.class,
+                () -> store.execute("john", "Flight.book", "k1", "other body", calls::incrementAndGet));
+    }
+
+    @Test
+    public void execute_failure_isNotRemembered() {
+        assertThrows(IllegalStateException.class, () -> store.execute("john", "Flight.book", "k1", "body", () -> {
+            throw new IllegalStateException("No seats");
+        }));
+
+        int retry = store.execute("john", "Flight.book", "k1", "body", calls::incrementAndGet);
+
+        assertEquals(1, retry);
+    }
+
+    @Test
+    public void execute_overMaxSize_evictsOldestKey() {
+        store.execute("john", "Flight.book", "k1", "body", calls::incrementAndGet);
+        store.execute("john", "Flight.book", "k2", "body", calls::incrementAndGet);
+        store.execute("john", "Flight.book", "k3", "body", calls::incrementAndGet);
+        store.execute("john", "Flight.book", "k1", "body", calls::incrementAndGet);
+
+        assertEquals(4, calls.get());
+    }
+}
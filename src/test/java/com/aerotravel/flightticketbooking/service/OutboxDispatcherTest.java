@@ -0,0 +1,108 @@
+package com.aerotravel.flightticketbooking.service;
+
+import com.aerotravel.flightticketbooking.model.OutboxEvent;
+import com.aerotravel.flightticketbooking.services.outbox.Outbox;
+import com.aerotravel.flightticketbooking.services.outbox.OutboxDispatcher;
+import com.aerotravel.flightticketbooking.services.outbox.OutboxEventHandler;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class OutboxDispatcherTest {
+
+    private static final String EVENT_TYPE = "TEST";
+
+    private final Outbox outbox = mock(Outbox.class);
+    private final Set<Long> failing = ConcurrentHashMap.newKeySet();
+    private final List<Long> handled = new CopyOnWriteArrayList<>();
+    private final OutboxDispatcher dispatcher = new OutboxDispatcher(outbox, List.of(new OutboxEventHandler() {
+        @Override
+        public String getEventType() {
+            return EVENT_TYPE;
+        }
+
+        @Override
+        public void handle(OutboxEvent event) {
+            if (failing.contains(event.getEventId())) throw new IllegalStateException("Handler down");
+            handled.add(event.getEventId());
+        }
+    }), 10, 2);
+
+    @Test
+    public void dispatch_failedEvent_holdsBackLaterEventsOfItsAggregate() {
+        var retryAt = Instant.now().plusSeconds(60);
+        failAndRetryAt(OutboxEvent.Status.PENDING, retryAt);
+        failing.add(1L);
+        when(outbox.claimDue(10)).thenReturn(List.of(event(1, 7), event(2, 8), event(3, 7)));
+
+        dispatcher.dispatch();
+
+        assertEquals(List.of(2L), handled);
+        verify(outbox).markDispatched(argThat(ids -> List.copyOf(ids).equals(List.of(2L))));
+        verify(outbox).postpone(List.of(3L), retryAt);
+    }
+
+    @Test
+    public void dispatch_aggregateStaysHeldBackUntilTheRetry() {
+        var retryAt = Instant.now().plusSeconds(60);
+        failAndRetryAt(OutboxEvent.Status.PENDING, retryAt);
+        failing.add(1L);
+        when(outbox.claimDue(10)).thenReturn(List.of(event(1, 7)), List.of(event(4, 7), event(5, 8)));
+
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+
+        assertEquals(List.of(5L), handled);
+        verify(outbox).postpone(List.of(4L), retryAt);
+    }
+
+    @Test
+    public void dispatch_retryDue_aggregateDispatchedAgain() {
+        failAndRetryAt(OutboxEvent.Status.PENDING, Instant.now().minusSeconds(1));
+        failing.add(1L);
+        when(outbox.claimDue(10)).thenReturn(List.of(event(1, 7)), List.of(event(4, 7)));
+
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+
+        assertEquals(List.of(4L), handled);
+        verify(outbox, never()).postpone(any(), any());
+    }
+
+    @Test
+    public void dispatch_gaveUpOnEvent_laterEventsOfItsAggregateGoOn() {
+        failAndRetryAt(OutboxEvent.Status.FAILED, Instant.now().plusSeconds(60));
+        failing.add(1L);
+        when(outbox.claimDue(10)).thenReturn(List.of(event(1, 7), event(3, 7)));
+
+        dispatcher.dispatch();
+
+        assertEquals(List.of(3L), handled);
+        verify(outbox, never()).postpone(any(), any());
+    }
+
+    private void failAndRetryAt(OutboxEvent.Status status, Instant retryAt) {
+        doAnswer(invocation -> {
+            OutboxEvent event = invocation.getArgument(0);
+            event.setStatus(status);
+            event.setNextAttemptAt(retryAt);
+            return null;
+        }).when(outbox).markFailed(any(), any());
+    }
+
+    private static OutboxEvent event(long eventId, long aggregateId) {
+        return OutboxEvent.builder()
+                .eventId(eventId)
+                .eventType(EVENT_TYPE)
+                .aggregateId(aggregateId)
+                .status(OutboxEvent.Status.CLAIMED)
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.aerotravel.flightticketbooking.service;
+
+import com.aerotravel.flightticketbooking.model.OutboxEvent;
+import com.aerotravel.flightticketbooking.repository.OutboxEventRepository;
+import com.aerotravel.flightticketbooking.services.outbox.Outbox;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class OutboxTest {
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final Outbox outbox = new Outbox(outboxEventRepository, new ObjectMapper(), 3,
+            Duration.ofMinutes(5), Duration.ofSeconds(2), Duration.ofDays(7));
+
+    @Test
+    public void claimDue_leasesTheEvents() {
+        var event = OutboxEvent.builder().eventId(1).status(OutboxEvent.Status.PENDING).build();
+        when(outboxEventRepository.findDueForUpdate(any(), any(), any())).thenReturn(List.of(event));
+        var before = Instant.now();
+
+        assertEquals(List.of(event), outbox.claimDue(10));
+        assertEquals(OutboxEvent.Status.CLAIMED, event.getStatus());
+        assertFalse(event.getNextAttemptAt().isBefore(before.plus(Duration.ofMinutes(5))));
+    }
+
+    @Test
+    public void markFailed_retriedWithExponentialBackoff() {
+        var event = OutboxEvent.builder().eventId(1).status(OutboxEvent.Status.CLAIMED).attempts(1).build();
+        var before = Instant.now();
+
+        outbox.markFailed(event, new IllegalStateException("Handler down"));
+
+        assertEquals(OutboxEvent.Status.PENDING, event.getStatus());
+        assertEquals(2, event.getAttempts());
+        assertFalse(event.getNextAttemptAt().isBefore(before.plusSeconds(8)));
+        assertTrue(event.getNextAttemptAt().isBefore(Instant.now().plusSeconds(9)));
+        assertEquals("java.lang.IllegalStateException: Handler down", event.getLastError());
+        verify(outboxEventRepository).save(event);
+    }
+
+    @Test
+    public void markFailed_lastAttempt_givesUp() {
+        var event = OutboxEvent.builder().eventId(1).status(OutboxEvent.Status.CLAIMED).attempts(2).build();
+
+        outbox.markFailed(event, new IllegalStateException("Handler down"));
+
+        assertEquals(OutboxEvent.Status.FAILED, event.getStatus());
+        assertEquals(3, event.getAttempts());
+        verify(outboxEventRepository).save(event);
+    }
+
+    @Test
+    public void postpone_putsTheEventsBackPending() {
+        var retryAt = Instant.now().plusSeconds(60);
+
+        outbox.postpone(List.of(2L, 3L), retryAt);
+        outbox.postpone(List.of(), retryAt);
+
+        verify(outboxEventRepository).postpone(List.of(2L, 3L), OutboxEvent.Status.PENDING, retryAt);
+        verifyNoMoreInteractions(outboxEventRepository);
+    }
+}
@@ -0,0 +1,37 @@
+package com.aerotravel.flightticketbooking.service;
+
+import com.aerotravel.flightticketbooking.services.cache.SeatMap;
+import com.aerotravel.flightticketbooking.services.cache.SeatMapCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeatMapCacheTest {
+
+    private final SeatMapCache cache = new SeatMapCache(10);
+
+    @Test
+    public void get_loadsOnce() {
+        var seatMap = cache.get(1, flightId -> new SeatMap(70));
+
+        assertSame(seatMap, cache.get(1, flightId -> fail("Loaded again")));
+        assertSame(seatMap, cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+    }
+
+    @Test
+    public void get_pastMaxSize_dropsTheLeastRecentlyUsed() {
+        for (long flightId = 1; flightId <= 10; flightId++) {
+            cache.get(flightId, id -> new SeatMap(70));
+        }
+        var hot = cache.get(1, id -> fail("Loaded again"));
+
+        cache.get(11, id -> new SeatMap(70));
+
+        assertEquals(9, cache.size());
+        assertSame(hot, cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+        assertNull(cache.getIfPresent(3));
+        assertNotNull(cache.getIfPresent(11));
+    }
+}
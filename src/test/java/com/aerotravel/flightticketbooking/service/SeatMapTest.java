@@ -0,0 +1,86 @@
+package com.aerotravel.flightticketbooking.service;
+
+import com.aerotravel.flightticketbooking.services.cache.SeatMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeatMapTest {
+
+    @Test
+    public void take_selectedSeat_onlyOnce() {
+        var seatMap = new SeatMap(70);
+
+        assertTrue(seatMap.take(65));
+        assertFalse(seatMap.take(65));
+        assertTrue(seatMap.isTaken(65));
+        assertEquals(69, seatMap.getAvailable());
+        assertFalse(seatMap.contains(71));
+        assertThrows(IllegalArgumentException.class, () -> seatMap.take(0));
+    }
+
+    @Test
+    public void takeAny_fillsMapThenReportsFull() {
+        var seatMap = new SeatMap(70);
+        seatMap.take(3);
+
+        var taken = new HashSet<Integer>();
+        for (int i = 0; i < 69; i++) {
+            int seat = seatMap.takeAny();
+            assertTrue(seatMap.contains(seat));
+            assertTrue(taken.add(seat));
+        }
+
+        assertFalse(taken.contains(3));
+        assertEquals(0, seatMap.takeAny());
+        assertEquals(0, seatMap.getAvailable());
+    }
+
+    @Test
+    public void release_givesSeatBack() {
+        var seatMap = new SeatMap(2);
+        seatMap.take(1);
+        seatMap.take(2);
+
+        assertTrue(seatMap.release(2));
+        assertFalse(seatMap.release(2));
+        assertEquals(List.of(1), seatMap.getTakenSeats());
+        assertEquals(2, seatMap.takeAny());
+    }
+
+    @Test
+    public void takeAny_concurrently_neverAssignsSeatTwice() throws InterruptedException {
+        var seatMap = new SeatMap(300);
+        var taken = new ConcurrentLinkedQueue<Integer>();
+        var start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 400; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                int seat = seatMap.takeAny();
+                if (0 != seat) {
+                    taken.add(seat);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(300, taken.size());
+        assertEquals(300, new HashSet<>(taken).size());
+        assertEquals(0, seatMap.getAvailable());
+    }
+}
@@ -0,0 +1,203 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.model.Aircraft;
+import com.aerotravel.flightticketbooking.model.Flight;
+import com.aerotravel.flightticketbooking.model.OutboxEvent;
+import com.aerotravel.flightticketbooking.model.Passenger;
+import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.model.WaitlistEntry;
+import com.aerotravel.flightticketbooking.repository.PassengerBatchRepository;
+import com.aerotravel.flightticketbooking.repository.PassengerRepository;
+import com.aerotravel.flightticketbooking.services.BookingResult;
+import com.aerotravel.flightticketbooking.services.FlightService;
+import com.aerotravel.flightticketbooking.services.PassengerService;
+import com.aerotravel.flightticketbooking.services.UserService;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class BookingServiceImplTest {
+
+    private static final long FLIGHT_ID = 7;
+
+    private final FlightService flightService = mock(FlightService.class);
+    private final PassengerService passengerService = mock(PassengerService.class);
+    private final UserService userService = mock(UserService.class);
+    private final SeatInventory seatInventory = mock(SeatInventory.class);
+    private final SeatHoldRegistry seatHoldRegistry = mock(SeatHoldRegistry.class);
+    private final FlightWaitlist flightWaitlist = mock(FlightWaitlist.class);
+    private final PassengerRepository passengerRepository = mock(PassengerRepository.class);
+    private final PassengerBatchRepository passengerBatchRepository = mock(PassengerBatchRepository.class);
+    private final FlightSearchCache flightSearchCache = mock(FlightSearchCache.class);
+    private final BookingEvents bookingEvents = mock(BookingEvents.class);
+    private final BulkCancellation bulkCancellation = mock(BulkCancellation.class);
+
+    private final BookingServiceImpl bookingService = new BookingServiceImpl(flightService, passengerService, userService,
+            seatInventory, seatHoldRegistry, flightWaitlist, passengerRepository, passengerBatchRepository,
+            flightSearchCache, bookingEvents, bulkCancellation);
+
+    private final Flight flight = Flight.builder()
+            .flightId(FLIGHT_ID)
+            .flightNumber("FL7")
+            .aircraft(new Aircraft(1, "Yak", "242", 100))
+            .owner(User.builder().id(3L).username("agent").build())
+            .build();
+
+    @BeforeEach
+    public void setUp() {
+        when(flightService.getById(FLIGHT_ID)).thenReturn(flight);
+        when(passengerService.save(any(Passenger.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void bookFlight_seatsLeft_books() {
+        when(seatInventory.hasSeatsLeft(flight, 1)).thenReturn(true);
+        var passenger = passenger("P1");
+
+        var result = bookingService.bookFlight(FLIGHT_ID, passenger);
+
+        assertFalse(result.isWaitlisted());
+        assertSame(flight, result.passenger().getFlight());
+        verify(passengerService).save(passenger);
+        verify(bookingEvents).publish(OutboxEvent.BOOKING_CONFIRMED, flight, List.of(passenger));
+    }
+
+    @Test
+    public void bookFlight_fullFlight_waitlists() {
+        var passenger = passenger("P1");
+        var waitlisted = BookingResult.waitlisted(new WaitlistEntry(), 1);
+        when(seatInventory.hasSeatsLeft(flight, 1)).thenReturn(false);
+        when(flightWaitlist.enqueue(flight, passenger)).thenReturn(waitlisted);
+
+        var result = bookingService.bookFlight(FLIGHT_ID, passenger);
+
+        assertSame(waitlisted, result);
+        verify(passengerService, never()).save(any());
+    }
+
+    @Test
+    public void bookFlight_requestedSeatOnFullFlight_isNotWaitlisted() {
+        var passenger = passenger("P1");
+        passenger.setSeatNumber(12);
+
+        bookingService.bookFlight(FLIGHT_ID, passenger);
+
+        verify(seatInventory, never()).hasSeatsLeft(any(), anyInt());
+        verify(passengerService).save(passenger);
+    }
+
+    @Test
+    public void bookFlight_passportBookedAlready_rejected() {
+        when(passengerRepository.existsOnFlightByPassportNumber(FLIGHT_ID, "P1")).thenReturn(true);
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.bookFlight(FLIGHT_ID, passenger("P1")));
+        verify(passengerService, never()).save(any());
+    }
+
+    @Test
+    public void bookFlight_passportWaitlistedAlready_rejected() {
+        when(flightWaitlist.contains(FLIGHT_ID, "P1")).thenReturn(true);
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.bookFlight(FLIGHT_ID, passenger("P1")));
+        verify(flightWaitlist, never()).enqueue(any(), any());
+    }
+
+    @Test
+    public void bookGroup_passportGivenTwice_rejected() {
+        var party = new ArrayList<>(List.of(passenger("P1"), passenger("P1")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.bookGroup(FLIGHT_ID, party));
+        verify(passengerBatchRepository, never()).insertAll(anyCollection());
+    }
+
+    @Test
+    public void bookGroup_passportWaitlisted_rejected() {
+        var party = new ArrayList<>(List.of(passenger("P1"), passenger("P2")));
+        when(flightWaitlist.findWaitlisted(eq(FLIGHT_ID), anyCollection())).thenReturn(List.of("P2"));
+
+        var exception = assertThrows(DataIntegrityViolationException.class, () -> bookingService.bookGroup(FLIGHT_ID, party));
+
+        assertTrue(exception.getMessage().contains("P2"));
+        verify(seatInventory, never()).reserve(any(), anyInt());
+        verify(passengerBatchRepository, never()).insertAll(anyCollection());
+    }
+
+    @Test
+    public void bookGroup_reservesAndInsertsTheWholeParty() {
+        var party = new ArrayList<>(List.of(passenger("P1"), passenger("P2")));
+        party.get(0).setSeatNumber(5);
+        when(seatInventory.takeSeat(flight, 5)).thenReturn(5);
+        when(seatInventory.takeSeat(flight, null)).thenReturn(6);
+        when(passengerRepository.findAllOnFlightByPassportNumbers(eq(FLIGHT_ID), anyCollection())).thenReturn(party);
+
+        var saved = bookingService.bookGroup(FLIGHT_ID, party);
+
+        assertSame(party, saved);
+        assertEquals(5, party.get(0).getSeatNumber());
+        assertEquals(6, party.get(1).getSeatNumber());
+        party.forEach(p -> {
+            assertSame(flight, p.getFlight());
+            assertNotNull(p.getBookingReference());
+        });
+        verify(seatInventory).reserve(flight, 2);
+        verify(passengerBatchRepository).insertAll(party);
+        verify(bookingEvents).publish(OutboxEvent.BOOKING_CONFIRMED, flight, party);
+    }
+
+    @Test
+    public void bookGroup_dropsTheCachedSearchesOfTheFlight() {
+        var party = new ArrayList<>(List.of(passenger("P1"), passenger("P2")));
+        when(seatInventory.takeSeat(flight, null)).thenReturn(5, 6);
+
+        bookingService.bookGroup(FLIGHT_ID, party);
+
+        verify(flightSearchCache).invalidateFlight(FLIGHT_ID);
+    }
+
+    @Test
+    public void cancelBooking_promotesTheHeadOfTheWaitlistOntoTheFreedSeat() {
+        var cancelled = passenger("P1");
+        cancelled.setPassengerId(11);
+        cancelled.setFlight(flight);
+        cancelled.setSeatNumber(9);
+        when(passengerService.getById(11L)).thenReturn(cancelled);
+
+        bookingService.cancelBooking(11);
+
+        var inOrder = inOrder(passengerService, flightWaitlist);
+        inOrder.verify(passengerService).deleteById(11L);
+        inOrder.verify(flightWaitlist).promote(flight, List.of(9));
+    }
+
+    @Test
+    public void bookFlight_waitlistServedFirst() {
+        var passenger = passenger("P1");
+        when(seatInventory.hasSeatsLeft(flight, 1)).thenReturn(false);
+
+        bookingService.bookFlight(FLIGHT_ID, passenger);
+
+        var inOrder = inOrder(flightWaitlist, seatInventory);
+        inOrder.verify(flightWaitlist).promote(flight, List.of());
+        inOrder.verify(seatInventory).hasSeatsLeft(flight, 1);
+        inOrder.verify(flightWaitlist).enqueue(flight, passenger);
+    }
+
+    private static Passenger passenger(String passportNumber) {
+        return Passenger.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .passportNumber(passportNumber)
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.model.projection.CancelledBooking;
+import com.aerotravel.flightticketbooking.repository.FlightRepository;
+import com.aerotravel.flightticketbooking.repository.PassengerRepository;
+import com.aerotravel.flightticketbooking.repository.WaitlistEntryRepository;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class BulkCancellationTest {
+
+    private static final long OWNER_ID = 3;
+
+    private final FlightRepository flightRepository = mock(FlightRepository.class);
+    private final PassengerRepository passengerRepository = mock(PassengerRepository.class);
+    private final WaitlistEntryRepository waitlistEntryRepository = mock(WaitlistEntryRepository.class);
+    private final SeatInventory seatInventory = mock(SeatInventory.class);
+    private final FlightSearchCache flightSearchCache = mock(FlightSearchCache.class);
+    private final BookingEvents bookingEvents = mock(BookingEvents.class);
+
+    private final BulkCancellation bulkCancellation = new BulkCancellation(flightRepository, passengerRepository,
+            waitlistEntryRepository, seatInventory, flightSearchCache, bookingEvents);
+
+    @Test
+    public void cancelByIds_givesBackExactlyTheSeatsCancelled() {
+        var ids = List.of(11L, 12L, 13L);
+        var bookings = List.of(booking(7L, 11, 4), booking(7L, 12, null), booking(8L, 13, 1));
+        when(passengerRepository.findBookingsByIds(ids, OWNER_ID)).thenReturn(bookings);
+        when(passengerRepository.deleteAllByIds(ids, OWNER_ID)).thenReturn(3);
+
+        assertEquals(bookings, bulkCancellation.cancelByIds(ids, OWNER_ID));
+
+        var inOrder = inOrder(flightRepository, passengerRepository);
+        inOrder.verify(flightRepository).lockFlightsOfBookings(ids, OWNER_ID);
+        inOrder.verify(passengerRepository).findBookingsByIds(ids, OWNER_ID);
+        verify(seatInventory).release(7L, 2);
+        verify(seatInventory).release(8L, 1);
+        verify(seatInventory).releaseSeat(7L, 4);
+        verify(seatInventory).releaseSeat(8L, 1);
+        verify(seatInventory, never()).changeCapacity(anyLong(), any(), any());
+        verify(bookingEvents).publishCancelled(bookings);
+    }
+
+    @Test
+    public void cancelByIds_changedConcurrently_rejected() {
+        var ids = List.of(11L, 12L);
+        when(passengerRepository.findBookingsByIds(ids, OWNER_ID)).thenReturn(List.of(booking(7L, 11, 4), booking(7L, 12, 5)));
+        when(passengerRepository.deleteAllByIds(ids, OWNER_ID)).thenReturn(1);
+
+        assertThrows(DataIntegrityViolationException.class, () -> bulkCancellation.cancelByIds(ids, OWNER_ID));
+        verify(seatInventory, never()).release(anyLong(), anyInt());
+    }
+
+    @Test
+    public void cancelOnFlights_givesBackTheSeatsOfEveryBooking() {
+        var flightIds = List.of(7L);
+        when(flightRepository.lockOwnedFlights(flightIds, OWNER_ID)).thenReturn(flightIds);
+        when(passengerRepository.findBookingsOnFlights(flightIds, OWNER_ID))
+                .thenReturn(List.of(booking(7L, 11, 4), booking(7L, 12, 5)));
+        when(passengerRepository.deleteAllOnFlights(flightIds, OWNER_ID)).thenReturn(2);
+
+        bulkCancellation.cancelOnFlights(flightIds, OWNER_ID);
+
+        verify(seatInventory).release(7L, 2);
+        verify(seatInventory).releaseSeat(7L, 4);
+        verify(seatInventory).releaseSeat(7L, 5);
+    }
+
+    private static CancelledBooking booking(Long flightId, long passengerId, Integer seat) {
+        return new CancelledBooking(flightId, "FL" + flightId, passengerId, "P" + passengerId, seat);
+    }
+}
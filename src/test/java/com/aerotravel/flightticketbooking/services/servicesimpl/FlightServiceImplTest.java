@@ -0,0 +1,163 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.model.Airport;
+import com.aerotravel.flightticketbooking.model.Flight;
+import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.model.dto.FareCalendarDayDto;
+import com.aerotravel.flightticketbooking.model.dto.FlightDto;
+import com.aerotravel.flightticketbooking.model.projection.FareCalendarEntry;
+import com.aerotravel.flightticketbooking.model.projection.FlightPassengerRef;
+import com.aerotravel.flightticketbooking.repository.FlightRepository;
+import com.aerotravel.flightticketbooking.repository.PassengerRepository;
+import com.aerotravel.flightticketbooking.services.UserService;
+import com.aerotravel.flightticketbooking.services.cache.FlightRouteIndex;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class FlightServiceImplTest {
+
+    private static final long OWNER_ID = 3;
+
+    private final FlightRepository flightRepository = mock(FlightRepository.class);
+    private final PassengerRepository passengerRepository = mock(PassengerRepository.class);
+    private final UserService userService = mock(UserService.class);
+    private final FlightRouteIndex flightRouteIndex = mock(FlightRouteIndex.class);
+    private final FlightServiceImpl flightService = new FlightServiceImpl(flightRepository,
+            passengerRepository, userService, flightRouteIndex, mock(FlightSearchCache.class),
+            mock(SeatInventory.class), mock(BulkCancellation.class));
+
+    @BeforeEach
+    public void setUp() {
+        var user = new User();
+        user.setId(OWNER_ID);
+        when(userService.getCurrentUser()).thenReturn(user);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void saveFlightForCurrentUser_routeIndexedOnceCommitted() {
+        var flight = new Flight();
+        when(flightRepository.save(flight)).thenReturn(flight);
+
+        flightService.saveFlightForCurrentUser(flight);
+        verify(flightRouteIndex, never()).onFlightSaved(anyLong(), any());
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        verify(flightRouteIndex).onFlightSaved(OWNER_ID, flight);
+    }
+
+    @Test
+    public void saveFlightForCurrentUser_rolledBack_routeNotIndexed() {
+        var flight = new Flight();
+        when(flightRepository.save(flight)).thenReturn(flight);
+
+        flightService.saveFlightForCurrentUser(flight);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(flightRouteIndex, never()).onFlightSaved(anyLong(), any());
+    }
+
+    @Test
+    public void deleteById_routeDroppedOnceCommitted() {
+        var owner = new User();
+        owner.setId(OWNER_ID);
+        var flight = new Flight();
+        flight.setFlightId(7);
+        flight.setOwner(owner);
+        when(flightRepository.findByIdAndOwnerId(7L, OWNER_ID)).thenReturn(Optional.of(flight));
+
+        flightService.deleteById(7L);
+        verify(flightRouteIndex, never()).onFlightDeleted(anyLong(), anyLong());
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        verify(flightRouteIndex).onFlightDeleted(OWNER_ID, 7L);
+    }
+
+    @Test
+    public void getCurrentUserFareCalendar_reportsEveryDayOfTheWindow() {
+        var depAirport = Airport.builder().airportId(10).build();
+        var destAirport = Airport.builder().airportId(20).build();
+        var day = LocalDate.of(2030, 5, 17);
+        when(flightRepository.findFareCalendar(OWNER_ID, 10, 20, day.minusDays(2), day.plusDays(2)))
+                .thenReturn(List.of(new FareCalendarEntry(day.minusDays(1), 120.0, 3L),
+                        new FareCalendarEntry(day.plusDays(2), 80.0, 1L)));
+
+        var calendar = flightService.getCurrentUserFareCalendar(depAirport, destAirport, day, 2);
+
+        assertEquals(List.of(day.minusDays(2), day.minusDays(1), day, day.plusDays(1), day.plusDays(2)),
+                calendar.stream().map(FareCalendarDayDto::getDepartureDate).toList());
+        assertNull(calendar.get(0).getCheapestFlightCharge());
+        assertEquals(0, calendar.get(0).getFlightCount());
+        assertEquals(120.0, calendar.get(1).getCheapestFlightCharge());
+        assertEquals(3, calendar.get(1).getFlightCount());
+        assertNull(calendar.get(2).getCheapestFlightCharge());
+        assertEquals(80.0, calendar.get(4).getCheapestFlightCharge());
+        assertEquals(1, calendar.get(4).getFlightCount());
+    }
+
+    @Test
+    public void getCurrentUserFareCalendar_noFlexDays_justTheDay() {
+        var day = LocalDate.of(2030, 5, 17);
+        when(flightRepository.findFareCalendar(OWNER_ID, 10, 20, day, day)).thenReturn(List.of());
+
+        var calendar = flightService.getCurrentUserFareCalendar(Airport.builder().airportId(10).build(),
+                Airport.builder().airportId(20).build(), day, 0);
+
+        assertEquals(1, calendar.size());
+        assertEquals(day, calendar.get(0).getDepartureDate());
+        assertEquals(0, calendar.get(0).getFlightCount());
+    }
+
+    @Test
+    public void getCurrentUserFlightDtosByAreas_trimsTheAreasAndFillsInThePassengers() {
+        var day = LocalDate.of(2030, 5, 17);
+        var first = flightDto(11);
+        var second = flightDto(12);
+        when(flightRepository.findDtosByOwnerIdAndAreasAndDepartureDate(OWNER_ID, "London", "Spain", day))
+                .thenReturn(List.of(first, second));
+        when(passengerRepository.findPassengerRefsByFlightIds(Set.of(11L, 12L)))
+                .thenReturn(List.of(new FlightPassengerRef(11, 101), new FlightPassengerRef(11, 102)));
+
+        var flights = flightService.getCurrentUserFlightDtosByAreas(" London ", "Spain ", day);
+
+        assertEquals(List.of(first, second), flights);
+        assertEquals(List.of(101L, 102L), first.getPassengerIds());
+        assertTrue(second.getPassengerIds().isEmpty());
+    }
+
+    @Test
+    public void getCurrentUserFlightDtosByAreas_nothingFound_noPassengerQuery() {
+        var day = LocalDate.of(2030, 5, 17);
+        when(flightRepository.findDtosByOwnerIdAndAreasAndDepartureDate(OWNER_ID, "Atlantis", "Spain", day))
+                .thenReturn(List.of());
+
+        assertTrue(flightService.getCurrentUserFlightDtosByAreas("Atlantis", "Spain", day).isEmpty());
+        verifyNoInteractions(passengerRepository);
+    }
+
+    private static FlightDto flightDto(long flightId) {
+        return new FlightDto(flightId, "FL" + flightId, "AAA", "BBB", LocalDate.of(2030, 5, 17), LocalDate.of(2030, 5, 17),
+                "10:00", "12:00", null, null, 100.0, null, 0);
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(status));
+    }
+}
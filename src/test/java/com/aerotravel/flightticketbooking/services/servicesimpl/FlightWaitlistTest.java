@@ -0,0 +1,106 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.model.Flight;
+import com.aerotravel.flightticketbooking.model.Passenger;
+import com.aerotravel.flightticketbooking.model.User;
+import com.aerotravel.flightticketbooking.model.WaitlistEntry;
+import com.aerotravel.flightticketbooking.repository.FlightRepository;
+import com.aerotravel.flightticketbooking.repository.PassengerRepository;
+import com.aerotravel.flightticketbooking.repository.WaitlistEntryRepository;
+import com.aerotravel.flightticketbooking.services.cache.FlightSearchCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class FlightWaitlistTest {
+
+    private static final long FLIGHT_ID = 7;
+
+    private final WaitlistEntryRepository waitlistEntryRepository = mock(WaitlistEntryRepository.class);
+    private final FlightRepository flightRepository = mock(FlightRepository.class);
+    private final PassengerRepository passengerRepository = mock(PassengerRepository.class);
+    private final SeatInventory seatInventory = mock(SeatInventory.class);
+    private final FlightSearchCache flightSearchCache = mock(FlightSearchCache.class);
+    private final BookingEvents bookingEvents = mock(BookingEvents.class);
+
+    private final FlightWaitlist flightWaitlist = new FlightWaitlist(waitlistEntryRepository, flightRepository,
+            passengerRepository, seatInventory, flightSearchCache, bookingEvents);
+
+    private final User owner = User.builder().id(3L).username("agent").build();
+    private final Flight flight = Flight.builder().flightId(FLIGHT_ID).flightNumber("FL7").owner(owner).build();
+
+    @Test
+    public void pollBookable_dropsTheEntriesBookedMeanwhile() {
+        var booked = entry(1, "P1");
+        var next = entry(2, "P2");
+        when(waitlistEntryRepository.findFirstByFlightFlightIdOrderByWaitlistEntryIdAsc(FLIGHT_ID))
+                .thenReturn(Optional.of(booked), Optional.of(next));
+        when(passengerRepository.existsOnFlightByPassportNumber(FLIGHT_ID, "P1")).thenReturn(true);
+
+        assertEquals(Optional.of(next), flightWaitlist.pollBookable(FLIGHT_ID));
+        verify(waitlistEntryRepository).delete(booked);
+        verify(waitlistEntryRepository).delete(next);
+        verify(flightRepository, times(2)).decrementWaitlistCount(FLIGHT_ID);
+    }
+
+    @Test
+    public void pollBookable_onlyBookedOnes_empty() {
+        when(waitlistEntryRepository.findFirstByFlightFlightIdOrderByWaitlistEntryIdAsc(FLIGHT_ID))
+                .thenReturn(Optional.of(entry(1, "P1")), Optional.empty());
+        when(passengerRepository.existsOnFlightByPassportNumber(FLIGHT_ID, "P1")).thenReturn(true);
+
+        assertTrue(flightWaitlist.pollBookable(FLIGHT_ID).isEmpty());
+    }
+
+    @Test
+    public void promote_booksTheHeadOntoTheFreedSeatsFirst() {
+        when(flightRepository.findWaitlistCount(FLIGHT_ID)).thenReturn(2);
+        when(seatInventory.hasSeatsLeft(flight, 1)).thenReturn(true, true, false);
+        when(waitlistEntryRepository.findFirstByFlightFlightIdOrderByWaitlistEntryIdAsc(FLIGHT_ID))
+                .thenReturn(Optional.of(entry(1, "P1")), Optional.of(entry(2, "P2")));
+        when(seatInventory.takeSeat(flight, 9)).thenReturn(9);
+        when(seatInventory.takeSeat(flight, null)).thenReturn(1);
+        when(passengerRepository.save(any(Passenger.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var promoted = flightWaitlist.promote(flight, List.of(9));
+
+        assertEquals(List.of("P1", "P2"), promoted.stream().map(Passenger::getPassportNumber).toList());
+        assertEquals(9, promoted.get(0).getSeatNumber());
+        assertEquals(1, promoted.get(1).getSeatNumber());
+        promoted.forEach(p -> {
+            assertSame(owner, p.getOwner());
+            assertNotNull(p.getBookingReference());
+        });
+        verify(seatInventory, times(2)).reserve(flight, 1);
+    }
+
+    @Test
+    public void promote_noWaitlist_noSeatCheck() {
+        assertTrue(flightWaitlist.promote(flight, List.of(9)).isEmpty());
+
+        verifyNoInteractions(seatInventory);
+    }
+
+    @Test
+    public void onSeatsReleased_promotesOntoTheSeatsLeft() {
+        when(flightRepository.findWaitlistCount(FLIGHT_ID)).thenReturn(1);
+        when(flightRepository.findById(FLIGHT_ID)).thenReturn(Optional.of(flight));
+        when(seatInventory.hasSeatsLeft(flight, 1)).thenReturn(true);
+        when(waitlistEntryRepository.findFirstByFlightFlightIdOrderByWaitlistEntryIdAsc(FLIGHT_ID))
+                .thenReturn(Optional.of(entry(1, "P1")), Optional.empty());
+        when(passengerRepository.save(any(Passenger.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        flightWaitlist.onSeatsReleased(new SeatsReleased(FLIGHT_ID));
+
+        verify(passengerRepository).save(argThat(p -> "P1".equals(p.getPassportNumber())));
+        verify(seatInventory).takeSeat(flight, null);
+    }
+
+    private static WaitlistEntry entry(long id, String passportNumber) {
+        return WaitlistEntry.builder().waitlistEntryId(id).passportNumber(passportNumber).build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void decode_encoded_sameCursor() {
+        assertRoundTrip(new KeysetCursor(LocalDate.of(2030, 5, 17), 42), LocalDate.class);
+        assertRoundTrip(new KeysetCursor("Doe: John", 7), String.class);
+        assertRoundTrip(new KeysetCursor(150L, 3), Long.class);
+        assertRoundTrip(new KeysetCursor(null, 9), String.class);
+    }
+
+    @Test
+    public void decode_primitiveSortType_boxed() {
+        var token = new KeysetCursor(180, 5).encode();
+
+        assertEquals(new KeysetCursor(180, 5), KeysetCursor.decode(token, int.class));
+    }
+
+    @Test
+    public void encode_urlSafeWithoutPadding() {
+        var token = new KeysetCursor("?>?>", 1).encode();
+
+        assertFalse(token.contains("+") || token.contains("/") || token.contains("="), token);
+    }
+
+    @Test
+    public void decode_malformed_rejected() {
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode("not base64!", String.class));
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode(token("42"), String.class));
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode(token("x:Vabc"), String.class));
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode(token("42:abc"), String.class));
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode(token("42:"), String.class));
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode(token("42:V2030-13-01"), LocalDate.class));
+    }
+
+    private static void assertRoundTrip(KeysetCursor cursor, Class<?> sortType) {
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode(), sortType));
+    }
+
+    private static String token(String plain) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+}
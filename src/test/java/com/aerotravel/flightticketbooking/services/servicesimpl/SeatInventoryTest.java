@@ -0,0 +1,204 @@
+package com.aerotravel.flightticketbooking.services.servicesimpl;
+
+import com.aerotravel.flightticketbooking.model.Aircraft;
+import com.aerotravel.flightticketbooking.model.Flight;
+import com.aerotravel.flightticketbooking.repository.FlightRepository;
+import com.aerotravel.flightticketbooking.repository.PassengerRepository;
+import com.aerotravel.flightticketbooking.services.cache.SeatMapCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SeatInventoryTest {
+
+    private static final long FLIGHT_ID = 7;
+
+    private final FlightRepository flightRepository = mock(FlightRepository.class);
+    private final PassengerRepository passengerRepository = mock(PassengerRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SeatInventory seatInventory = new SeatInventory(flightRepository, passengerRepository, new SeatMapCache(100),
+            eventPublisher, false);
+
+    @Test
+    public void reserve_counted_takesSeats() {
+        when(flightRepository.reserveSeats(FLIGHT_ID, 2)).thenReturn(1);
+
+        seatInventory.reserve(flight(100), 2);
+
+        verify(flightRepository, never()).initSeatsRemaining(anyLong(), anyInt());
+    }
+
+    @Test
+    public void reserve_countedByConcurrentBooking_retries() {
+        // Both bookings found the counter unset; the other one counted it first.
+        when(flightRepository.reserveSeats(FLIGHT_ID, 1)).thenReturn(0, 1);
+        when(flightRepository.initSeatsRemaining(FLIGHT_ID, 0)).thenReturn(0);
+
+        seatInventory.reserve(flight(100), 1);
+
+        verify(flightRepository, times(2)).reserveSeats(FLIGHT_ID, 1);
+    }
+
+    @Test
+    public void reserve_countedHere_retries() {
+        when(flightRepository.reserveSeats(FLIGHT_ID, 1)).thenReturn(0, 1);
+        when(flightRepository.initSeatsRemaining(FLIGHT_ID, 0)).thenReturn(1);
+
+        seatInventory.reserve(flight(100), 1);
+
+        verify(flightRepository, times(2)).reserveSeats(FLIGHT_ID, 1);
+    }
+
+    @Test
+    public void reserve_noSeatsLeft_throws() {
+        when(flightRepository.reserveSeats(FLIGHT_ID, 3)).thenReturn(0);
+        when(flightRepository.initSeatsRemaining(FLIGHT_ID, 0)).thenReturn(0);
+
+        var exception = assertThrows(DataIntegrityViolationException.class, () -> seatInventory.reserve(flight(100), 3));
+
+        assertTrue(exception.getMessage().contains("Not enough seats left"));
+    }
+
+    @Test
+    public void reserve_unknownCapacity_isNotLimited() {
+        when(flightRepository.reserveSeats(FLIGHT_ID, 1)).thenReturn(0);
+
+        seatInventory.reserve(flight(null), 1);
+    }
+
+    @Test
+    public void takeSeat_requestedSeat_takenOnce() {
+        when(passengerRepository.findSeatNumbersByFlightId(FLIGHT_ID)).thenReturn(List.of(3));
+        var flight = flight(10);
+
+        assertEquals(4, seatInventory.takeSeat(flight, 4));
+        assertThrows(DataIntegrityViolationException.class, () -> seatInventory.takeSeat(flight, 4));
+        assertThrows(DataIntegrityViolationException.class, () -> seatInventory.takeSeat(flight, 3));
+        assertThrows(DataIntegrityViolationException.class, () -> seatInventory.takeSeat(flight, 11));
+    }
+
+    @Test
+    public void takeSeat_noneRequested_takesAFreeOne() {
+        when(passengerRepository.findSeatNumbersByFlightId(FLIGHT_ID)).thenReturn(List.of(1));
+        var flight = flight(2);
+
+        assertEquals(2, seatInventory.takeSeat(flight, null));
+        assertThrows(DataIntegrityViolationException.class, () -> seatInventory.takeSeat(flight, null));
+    }
+
+    @Test
+    public void releaseSeat_outsideTransaction_freesAtOnce() {
+        var flight = flight(1);
+        seatInventory.takeSeat(flight, 1);
+
+        seatInventory.releaseSeat(FLIGHT_ID, 1);
+
+        assertEquals(1, seatInventory.takeSeat(flight, 1));
+    }
+
+    @Test
+    public void takeSeat_unknownCapacity_noSeat() {
+        var flight = flight(null);
+
+        assertNull(seatInventory.takeSeat(flight, null));
+        assertThrows(DataIntegrityViolationException.class, () -> seatInventory.takeSeat(flight, 1));
+    }
+
+    @Test
+    public void reserve_uncounted_countsTheHeldSeatsAsTaken() {
+        seatInventory.markHeld(FLIGHT_ID, 3);
+        when(flightRepository.reserveSeats(FLIGHT_ID, 1)).thenReturn(0, 1);
+
+        seatInventory.reserve(flight(10), 1);
+
+        verify(flightRepository).initSeatsRemaining(FLIGHT_ID, 1);
+    }
+
+    @Test
+    public void changeCapacity_heldSeatKeptAcrossTheReload() {
+        seatInventory.takeSeat(flight(10), 4);
+        seatInventory.markHeld(FLIGHT_ID, 4);
+
+        seatInventory.changeCapacity(FLIGHT_ID, 10, 12);
+
+        verify(flightRepository).adjustSeatsRemaining(FLIGHT_ID, 2);
+        verify(flightRepository, never()).resetSeatsRemaining(anyLong());
+        verify(eventPublisher).publishEvent(new SeatsReleased(FLIGHT_ID));
+        assertThrows(DataIntegrityViolationException.class, () -> seatInventory.takeSeat(flight(12), 4));
+        assertEquals(12, seatInventory.takeSeat(flight(12), 12));
+    }
+
+    @Test
+    public void changeCapacity_unchanged_keepsCounterAndSeatMap() {
+        var flight = flight(10);
+        seatInventory.takeSeat(flight, 4);
+
+        seatInventory.changeCapacity(FLIGHT_ID, 10, 10);
+
+        verifyNoInteractions(flightRepository);
+        assertThrows(DataIntegrityViolationException.class, () -> seatInventory.takeSeat(flight, 4));
+    }
+
+    @Test
+    public void changeCapacity_decrease_nothingForTheWaitlist() {
+        seatInventory.changeCapacity(FLIGHT_ID, 10, 8);
+
+        verify(flightRepository).adjustSeatsRemaining(FLIGHT_ID, -2);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void release_counted_leftToTheWaitlist() {
+        when(flightRepository.releaseSeats(FLIGHT_ID, 2)).thenReturn(1);
+
+        seatInventory.release(FLIGHT_ID, 2);
+
+        verify(eventPublisher).publishEvent(new SeatsReleased(FLIGHT_ID));
+    }
+
+    @Test
+    public void release_uncounted_nothingReleased() {
+        seatInventory.release(FLIGHT_ID, 2);
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void changeCapacity_fromUnknown_countedAnew() {
+        seatInventory.changeCapacity(FLIGHT_ID, null, 10);
+
+        verify(flightRepository).resetSeatsRemaining(FLIGHT_ID);
+    }
+
+    @Test
+    public void releaseHold_givesTheSeatBack() {
+        var flight = flight(10);
+        seatInventory.takeSeat(flight, 4);
+        seatInventory.markHeld(FLIGHT_ID, 4);
+
+        seatInventory.releaseHold(FLIGHT_ID, 4);
+
+        verify(flightRepository).releaseSeats(FLIGHT_ID, 1);
+        assertEquals(4, seatInventory.takeSeat(flight, 4));
+    }
+
+    @Test
+    public void releaseHold_withoutSeat_nothingCounted() {
+        seatInventory.releaseHold(FLIGHT_ID, null);
+
+        verifyNoInteractions(flightRepository);
+    }
+
+    private static Flight flight(Integer capacity) {
+        return Flight.builder()
+                .flightId(FLIGHT_ID)
+                .flightNumber("FL" + FLIGHT_ID)
+                .aircraft(null == capacity ? null : new Aircraft(1, "Yak", "242", capacity))
+                .build();
+    }
+}